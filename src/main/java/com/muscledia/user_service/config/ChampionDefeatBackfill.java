@@ -0,0 +1,45 @@
+package com.muscledia.user_service.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the {@code champion_defeats} rollup with battles defeated before it existed.
+ *
+ * Only defeats missing from the rollup are inserted, so the runner is safe to repeat on
+ * every startup; once caught up it is a single anti-join that inserts nothing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChampionDefeatBackfill implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        int backfilled = 0;
+        int inserted;
+        do {
+            inserted = jdbcTemplate.update(
+                    "INSERT IGNORE INTO champion_defeats (champion_id, user_id, defeat_seconds, defeated_at) " +
+                            "SELECT uc.champion_id, uc.user_id, " +
+                            "GREATEST(0, TIMESTAMPDIFF(SECOND, uc.created_at, uc.defeat_date)), uc.defeat_date " +
+                            "FROM user_champions uc WHERE uc.defeated = TRUE " +
+                            "AND uc.created_at IS NOT NULL AND uc.defeat_date IS NOT NULL " +
+                            "AND NOT EXISTS (SELECT 1 FROM champion_defeats d " +
+                            "WHERE d.champion_id = uc.champion_id AND d.user_id = uc.user_id) " +
+                            "LIMIT " + BATCH_SIZE);
+            backfilled += inserted;
+        } while (inserted == BATCH_SIZE);
+
+        if (backfilled > 0) {
+            log.info("Backfilled {} champion defeats into champion_defeats", backfilled);
+        }
+    }
+}
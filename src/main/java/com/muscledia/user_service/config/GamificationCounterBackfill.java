@@ -0,0 +1,76 @@
+package com.muscledia.user_service.config;
+
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.leaderboard.service.GamificationCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Seeds {@code gamification_counters} from user_badges and user_champions once, recorded by
+ * the {@code gamification_counter_seed} marker row. From then on the counters are
+ * maintained by the award, battle and defeat transactions and this runner does nothing.
+ *
+ * The marker is inserted by the seeding transaction itself, so a node starting concurrently
+ * waits on its key and then skips, and a failed seed leaves no marker and is repeated on the
+ * next start. Under repeatable read the {@code INSERT ... SELECT} reads user_badges and
+ * user_champions with shared locks: an award or battle either committed first, and the seed
+ * overwrites its counter with a count that includes it, or waits and adds itself on top.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GamificationCounterBackfill implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheInvalidator cacheInvalidator;
+
+    @Override
+    public void run(String... args) {
+        Boolean seeded = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM gamification_counter_seed)", Boolean.class);
+        if (Boolean.TRUE.equals(seeded)) {
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        Integer rows;
+        try {
+            rows = transactionTemplate.execute(tx -> {
+                if (jdbcTemplate.update("INSERT IGNORE INTO gamification_counter_seed (seed_id, seeded_at) " +
+                        "VALUES (1, NOW())") == 0) {
+                    return null;
+                }
+                return jdbcTemplate.update(
+                        "INSERT INTO gamification_counters (subject_type, subject_id, holders, in_progress, defeated) " +
+                                "SELECT 'BADGE', badge_id, COUNT(*), 0, 0 FROM user_badges GROUP BY badge_id " +
+                                "ON DUPLICATE KEY UPDATE holders = VALUES(holders)")
+                        + jdbcTemplate.update(
+                        "INSERT INTO gamification_counters (subject_type, subject_id, holders, in_progress, defeated) " +
+                                "SELECT 'CHAMPION', champion_id, COUNT(*), " +
+                                "SUM(CASE WHEN defeated = TRUE THEN 0 ELSE 1 END), " +
+                                "SUM(CASE WHEN defeated = TRUE THEN 1 ELSE 0 END) " +
+                                "FROM user_champions GROUP BY champion_id " +
+                                "ON DUPLICATE KEY UPDATE holders = VALUES(holders), " +
+                                "in_progress = VALUES(in_progress), defeated = VALUES(defeated)");
+            });
+        } catch (DataAccessException e) {
+            // Say a deadlock with an award; rolled back with the marker, so the next start seeds again
+            log.warn("Seeding gamification_counters failed, will retry on next startup: {}", e.getMessage());
+            return;
+        }
+
+        if (rows != null) {
+            log.info("Seeded gamification_counters from user_badges and user_champions");
+            cacheInvalidator.invalidateAll(GamificationCounters.REGION);
+        }
+    }
+}
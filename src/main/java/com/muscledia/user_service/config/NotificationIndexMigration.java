@@ -0,0 +1,51 @@
+package com.muscledia.user_service.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops indexes of notifications that Hibernate's schema update no longer creates but never
+ * drops itself: {@code idx_user_is_read}, a strict prefix of its keyset replacement
+ * {@code idx_user_read_created}, and {@code idx_user_group}, whose coalescing lookups now go
+ * through notification_groups. Either only costs writes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationIndexMigration implements CommandLineRunner {
+
+    private static final List<ObsoleteIndex> OBSOLETE_INDEXES = List.of(
+            new ObsoleteIndex("idx_user_is_read", "idx_user_read_created"),
+            new ObsoleteIndex("idx_user_group", null));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        for (ObsoleteIndex index : OBSOLETE_INDEXES) {
+            if (indexExists(index.name()) && (index.replacement() == null || indexExists(index.replacement()))) {
+                jdbcTemplate.execute("ALTER TABLE notifications DROP INDEX " + index.name());
+                log.info("Dropped obsolete index {} on notifications", index.name());
+            }
+        }
+    }
+
+    private boolean indexExists(String indexName) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'notifications' AND index_name = ?",
+                Integer.class, indexName);
+        return count != null && count > 0;
+    }
+
+    /**
+     * @param replacement index that must exist before {@code name} is dropped; null if none
+     */
+    private record ObsoleteIndex(String name, String replacement) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.muscledia.user_service.config;
+
+import com.muscledia.user_service.user.entity.ERole;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills {@code users.role_mask} from the user_roles join table and (re)creates
+ * {@code user_roles_view}, which exposes the bitmask in the old (user_id, role_id) shape
+ * for reports and other readers of user_roles.
+ *
+ * Only rows whose mask is still NULL are touched, so the runner is safe to repeat on
+ * every startup and never overwrites roles changed after the switch to bitmask storage.
+ * Once no NULL mask is left, a startup only checks that and recreates the view.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoleMaskMigration implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        String bitCase = roleBitCase("r.name");
+
+        Boolean pending = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM users WHERE role_mask IS NULL)", Boolean.class);
+        if (Boolean.TRUE.equals(pending)) {
+            backfill(bitCase);
+        }
+
+        jdbcTemplate.execute(
+                "CREATE OR REPLACE VIEW user_roles_view AS " +
+                        "SELECT u.user_id, r.id AS role_id, r.name AS role_name FROM users u " +
+                        "JOIN roles r ON (COALESCE(u.role_mask, 0) & " + bitCase + ") <> 0");
+    }
+
+    /**
+     * Walks the NULL masks in primary key order, one key range per statement: a bare
+     * {@code UPDATE ... LIMIT} picks its rows in no defined order and would lock whatever
+     * the optimizer happens to scan.
+     */
+    private void backfill(String bitCase) {
+        long migrated = 0;
+        long lastUserId = 0;
+        Long batchEnd;
+        while ((batchEnd = jdbcTemplate.queryForObject(
+                "SELECT MAX(user_id) FROM (SELECT user_id FROM users WHERE user_id > ? AND role_mask IS NULL " +
+                        "ORDER BY user_id LIMIT " + BATCH_SIZE + ") batch",
+                Long.class, lastUserId)) != null) {
+            // Small batches keep row locks short on large users tables
+            migrated += jdbcTemplate.update(
+                    "UPDATE users u SET u.role_mask = (" +
+                            "SELECT COALESCE(BIT_OR(" + bitCase + "), 0) FROM user_roles ur " +
+                            "JOIN roles r ON r.id = ur.role_id WHERE ur.user_id = u.user_id) " +
+                            "WHERE u.user_id > ? AND u.user_id <= ? AND u.role_mask IS NULL",
+                    lastUserId, batchEnd);
+            lastUserId = batchEnd;
+        }
+
+        if (migrated > 0) {
+            log.info("Backfilled role_mask for {} users from user_roles", migrated);
+        }
+    }
+
+    private String roleBitCase(String column) {
+        StringBuilder sql = new StringBuilder("CASE ").append(column);
+        for (ERole role : ERole.values()) {
+            sql.append(" WHEN '").append(role.name()).append("' THEN ").append(role.getBit());
+        }
+        return sql.append(" ELSE 0 END").toString();
+    }
+}
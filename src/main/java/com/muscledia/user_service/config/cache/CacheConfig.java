@@ -0,0 +1,14 @@
+package com.muscledia.user_service.config.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Local Caffeine caches (see {@code spring.cache.*}). Entries are kept coherent across
+ * nodes by {@link CacheInvalidator}; the expiry in the cache spec only bounds how stale
+ * an entry can get if an invalidation message is lost.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
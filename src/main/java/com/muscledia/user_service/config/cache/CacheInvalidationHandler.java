@@ -0,0 +1,18 @@
+package com.muscledia.user_service.config.cache;
+
+/**
+ * Hook for node-local state that is not a Spring {@code Cache} but must still follow
+ * invalidations published by other nodes.
+ */
+public interface CacheInvalidationHandler {
+
+    /**
+     * The region this handler owns; invalidations for it are routed here instead of the CacheManager.
+     */
+    String region();
+
+    /**
+     * Drop local state for {@code key}, or everything in the region when {@code key} is null.
+     */
+    void invalidate(String key);
+}
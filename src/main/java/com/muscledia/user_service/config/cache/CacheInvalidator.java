@@ -0,0 +1,113 @@
+package com.muscledia.user_service.config.cache;
+
+import com.muscledia.user_service.event.CacheInvalidationEvent;
+import com.muscledia.user_service.event.Publisher.CacheInvalidationPublisher;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Evicts a cache entry on this node and tells every other node to do the same.
+ * Inside a transaction the entry is evicted right away and again after commit (a
+ * concurrent read may have re-cached the old row in between), and the message is only
+ * sent once the change is visible to the other nodes.
+ */
+@Component
+@Slf4j
+public class CacheInvalidator {
+
+    /**
+     * Identifies this instance; lets the listener skip messages this node sent itself.
+     */
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<CacheInvalidationHandler> handlers;
+    private final ObjectProvider<CacheInvalidationPublisher> publisher;
+
+    public CacheInvalidator(CacheManager cacheManager,
+                            ObjectProvider<CacheInvalidationHandler> handlers,
+                            ObjectProvider<CacheInvalidationPublisher> publisher) {
+        this.cacheManager = cacheManager;
+        this.handlers = handlers;
+        this.publisher = publisher;
+    }
+
+    public void invalidate(String region, Object key) {
+        String cacheKey = key != null ? key.toString() : null;
+        evictLocal(region, cacheKey);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocal(region, cacheKey);
+                    publish(region, cacheKey);
+                }
+            });
+        } else {
+            publish(region, cacheKey);
+        }
+    }
+
+    /**
+     * Only tell the other nodes (after commit): for local state that this node has
+     * already brought up to date itself, such as counters adjusted in place.
+     */
+    public void invalidateOtherNodes(String region, Object key) {
+        String cacheKey = key != null ? key.toString() : null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(region, cacheKey);
+                }
+            });
+        } else {
+            publish(region, cacheKey);
+        }
+    }
+
+    public void invalidateAll(String region) {
+        invalidate(region, null);
+    }
+
+    /**
+     * Apply an invalidation to this node only.
+     */
+    public void evictLocal(String region, String key) {
+        for (CacheInvalidationHandler handler : handlers) {
+            if (handler.region().equals(region)) {
+                handler.invalidate(key);
+                return;
+            }
+        }
+
+        Cache cache = cacheManager.getCache(region);
+        if (cache == null) {
+            log.debug("No local cache for invalidation region {}", region);
+        } else if (key == null) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    private void publish(String region, String key) {
+        publisher.ifAvailable(p -> p.publish(CacheInvalidationEvent.builder()
+                .region(region)
+                .key(key)
+                .originNodeId(nodeId)
+                .issuedAt(Instant.now())
+                .build()));
+    }
+}
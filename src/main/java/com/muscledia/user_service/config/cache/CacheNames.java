@@ -0,0 +1,13 @@
+package com.muscledia.user_service.config.cache;
+
+/**
+ * Names of the local caches; also the invalidation regions other nodes evict by.
+ */
+public final class CacheNames {
+
+    public static final String USER_DATA = "userData";
+    public static final String USER_DATA_BY_USERNAME = "userDataByUsername";
+
+    private CacheNames() {
+    }
+}
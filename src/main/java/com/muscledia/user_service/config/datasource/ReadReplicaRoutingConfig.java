@@ -0,0 +1,106 @@
+package com.muscledia.user_service.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource with a replica-aware router when
+ * {@code muscledia.datasource.routing.enabled=true}.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(value = "muscledia.datasource.routing.enabled", havingValue = "true")
+@Slf4j
+public class ReadReplicaRoutingConfig {
+
+    /**
+     * The primary pool, configured exactly like the default one. Not an autowire candidate,
+     * so JPA and JdbcTemplate always get the routing proxy below.
+     */
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaRoutingProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            replicas.put("replica-" + i, createReplicaPool(dataSourceProperties, configured.get(i), i));
+        }
+        log.info("Routing read-only transactions to {} replica(s), max lag {}s",
+                replicas.size(), properties.getMaxLagSeconds());
+        return new ReplicaRoutingDataSource(primaryDataSource(dataSourceProperties), replicas,
+                properties.getStickyWindow());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource routingDataSource,
+                                               ReplicaRoutingProperties properties,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        routingDataSource.getResolvedDataSources().forEach((key, dataSource) -> {
+            if (!ReplicaRoutingDataSource.PRIMARY.equals(key)) {
+                replicas.put((String) key, dataSource);
+            }
+        });
+
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(routingDataSource, replicas, properties.getLagQuery(),
+                properties.getMaxLagSeconds(), properties.getLagCheckInterval());
+
+        meterRegistry.ifAvailable(registry -> {
+            replicas.keySet().forEach(key -> Gauge.builder("datasource.replica.lag.seconds", monitor,
+                            m -> m.getLagSeconds(key))
+                    .tag("replica", key)
+                    .register(registry));
+            FunctionCounter.builder("datasource.routing.reads", routingDataSource, ReplicaRoutingDataSource::getReplicaReads)
+                    .tag("target", "replica")
+                    .register(registry);
+            FunctionCounter.builder("datasource.routing.reads", routingDataSource, ReplicaRoutingDataSource::getPrimaryReads)
+                    .tag("target", "primary")
+                    .register(registry);
+        });
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private HikariDataSource createReplicaPool(DataSourceProperties primary, ReplicaRoutingProperties.Replica replica,
+                                               int index) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.getUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.getPassword());
+        if (primary.getDriverClassName() != null) {
+            dataSource.setDriverClassName(primary.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
@@ -0,0 +1,102 @@
+package com.muscledia.user_service.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically measures replica lag and takes lagging or unreachable replicas out of
+ * the rotation of {@link ReplicaRoutingDataSource}.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final String SHOW_REPLICA_STATUS = "SHOW REPLICA STATUS";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final Duration interval;
+    private final Map<String, Double> lastLagSeconds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, Map<String, DataSource> replicas,
+                             String lagQuery, long maxLagSeconds, Duration interval) {
+        this.routingDataSource = routingDataSource;
+        this.replicas = replicas;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? SHOW_REPLICA_STATUS : lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.interval = interval;
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas() {
+        replicas.forEach((key, dataSource) -> {
+            Double lag = probe(key, dataSource);
+            if (lag != null) {
+                lastLagSeconds.put(key, lag);
+            } else {
+                lastLagSeconds.remove(key);
+            }
+            routingDataSource.updateReplicaLag(key, lag, maxLagSeconds);
+        });
+        routingDataSource.evictExpiredStickiness();
+    }
+
+    /**
+     * Last measured lag in seconds, or NaN when the replica is unreachable or not replicating.
+     */
+    public double getLagSeconds(String replicaKey) {
+        return lastLagSeconds.getOrDefault(replicaKey, Double.NaN);
+    }
+
+    /**
+     * Highest lag among replicas that are replicating; 0 when there are none. Bulk writers
+     * use it to throttle themselves, a stopped replica must not stall them forever.
+     */
+    public double getMaxLagSeconds() {
+        return lastLagSeconds.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+    }
+
+    private Double probe(String key, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                // Not configured as a replica: nothing to lag behind
+                return 0.0;
+            }
+            if (!SHOW_REPLICA_STATUS.equals(lagQuery)) {
+                return resultSet.getDouble(1);
+            }
+            long seconds = resultSet.getLong("Seconds_Behind_Source");
+            // NULL means the SQL or IO thread is stopped: the replica is not catching up at all
+            return resultSet.wasNull() ? null : (double) seconds;
+        } catch (Exception e) {
+            log.warn("Could not measure lag of replica {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
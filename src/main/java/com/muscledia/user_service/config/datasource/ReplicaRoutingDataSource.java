@@ -0,0 +1,158 @@
+package com.muscledia.user_service.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ *
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager only marks a transaction read-only after it has begun, so the
+ * physical connection has to be fetched lazily on the first statement.
+ *
+ * Read-your-writes: when an authenticated user opens a read-write transaction, that user's
+ * reads stay on the primary for the sticky window, so replica lag never hides their own update.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final Map<String, Boolean> replicaHealthy = new ConcurrentHashMap<>();
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final long stickyWindowMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration stickyWindow) {
+        this.replicaKeys = new ArrayList<>(replicas.keySet());
+        this.stickyWindowMillis = stickyWindow.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        // Replicas start healthy; the lag monitor takes them out if they fall behind
+        replicaKeys.forEach(key -> replicaHealthy.put(key, true));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String principal = currentPrincipal();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (principal != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickyUntil.put(principal, System.currentTimeMillis() + stickyWindowMillis);
+            }
+            return PRIMARY;
+        }
+
+        if (principal != null && isSticky(principal)) {
+            primaryReads.incrementAndGet();
+            return PRIMARY;
+        }
+
+        String replica = nextHealthyReplica();
+        if (replica == null) {
+            primaryReads.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaReads.incrementAndGet();
+        return replica;
+    }
+
+    /**
+     * Called by {@link ReplicaLagMonitor}; a null lag means the replica could not be probed.
+     */
+    public void updateReplicaLag(String replicaKey, Double lagSeconds, long maxLagSeconds) {
+        boolean healthy = lagSeconds != null && lagSeconds <= maxLagSeconds;
+        Boolean previous = replicaHealthy.put(replicaKey, healthy);
+        if (previous != null && previous != healthy) {
+            if (healthy) {
+                log.info("Replica {} is back in rotation (lag {}s)", replicaKey, lagSeconds);
+            } else {
+                log.warn("Replica {} removed from rotation (lag {}s, max {}s), reads fall back to primary",
+                        replicaKey, lagSeconds, maxLagSeconds);
+            }
+        }
+    }
+
+    /**
+     * Drops expired read-your-writes entries so the map only holds recent writers.
+     */
+    public void evictExpiredStickiness() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until < now);
+    }
+
+    public List<String> getReplicaKeys() {
+        return replicaKeys;
+    }
+
+    public boolean isReplicaHealthy(String replicaKey) {
+        return replicaHealthy.getOrDefault(replicaKey, false);
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    /**
+     * Closes the replica pools; the primary is a bean of its own and is closed by the context.
+     */
+    @Override
+    public void close() throws Exception {
+        for (String key : replicaKeys) {
+            if (getResolvedDataSources().get(key) instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private boolean isSticky(String principal) {
+        Long until = stickyUntil.get(principal);
+        return until != null && until >= System.currentTimeMillis();
+    }
+
+    private String nextHealthyReplica() {
+        int size = replicaKeys.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (replicaHealthy.getOrDefault(key, false)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
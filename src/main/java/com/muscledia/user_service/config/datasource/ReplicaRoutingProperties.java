@@ -0,0 +1,46 @@
+package com.muscledia.user_service.config.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for routing read-only transactions to MySQL replicas.
+ * The primary keeps using the regular {@code spring.datasource.*} settings.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "muscledia.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** Replicas lagging more than this are skipped until they catch up */
+    private long maxLagSeconds = 5;
+
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    /**
+     * Query returning the replica lag in seconds as a single number. When empty,
+     * {@code SHOW REPLICA STATUS} is used and Seconds_Behind_Source is read.
+     */
+    private String lagQuery;
+
+    /** How long a user's reads stay on the primary after that user wrote something */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,30 @@
+package com.muscledia.user_service.config.threads;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/pinning}: where virtual threads got pinned to their carrier, and for how long.
+ */
+@Endpoint(id = "pinning")
+public class PinningEndpoint {
+
+    private final VirtualThreadPinningMonitor monitor;
+
+    public PinningEndpoint(VirtualThreadPinningMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public List<VirtualThreadPinningMonitor.PinnedSiteReport> pinnedSites() {
+        return monitor.getReport();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        monitor.reset();
+    }
+}
@@ -0,0 +1,35 @@
+package com.muscledia.user_service.config.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Pinning diagnostics for {@code spring.threads.virtual.enabled=true}. Spring Boot itself moves
+ * Tomcat request handling, the {@code @Async} executor and Kafka listener containers onto
+ * virtual threads; this adds the JFR stream that reports where those threads get pinned.
+ */
+@Configuration
+@ConditionalOnProperty(value = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(value = "muscledia.threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${muscledia.threads.pinning-monitor.threshold:20ms}") Duration threshold,
+            @Value("${muscledia.threads.pinning-monitor.max-sites:100}") int maxSites,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, maxSites, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "muscledia.threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public PinningEndpoint pinningEndpoint(VirtualThreadPinningMonitor monitor) {
+        return new PinningEndpoint(monitor);
+    }
+}
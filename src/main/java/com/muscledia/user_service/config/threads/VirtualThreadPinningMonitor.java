@@ -0,0 +1,172 @@
+package com.muscledia.user_service.config.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events and aggregates them per pinning site.
+ * A virtual thread is pinned when it blocks inside a {@code synchronized} block or a native
+ * frame, holding its carrier thread hostage; these are the places that silently cap
+ * throughput when request handling runs on virtual threads.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String OTHER_SITE = "(other)";
+    private static final int STACK_DEPTH = 16;
+
+    private final Duration threshold;
+    private final int maxTrackedSites;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, int maxTrackedSites, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.maxTrackedSites = maxTrackedSites;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Monitoring virtual thread pinning (threshold {} ms)", threshold.toMillis());
+    }
+
+    /**
+     * Pinning sites seen so far, most frequent first.
+     */
+    public List<PinnedSiteReport> getReport() {
+        return sites.values().stream()
+                .map(PinnedSite::toReport)
+                .sorted(Comparator.comparingLong(PinnedSiteReport::count).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        sites.clear();
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        record(siteOf(frames), sourceOf(frames), event.getDuration(), frames);
+    }
+
+    void record(String site, String source, Duration duration, List<RecordedFrame> frames) {
+        String key = sites.containsKey(site) || sites.size() < maxTrackedSites ? site : OTHER_SITE;
+        PinnedSite pinnedSite = sites.computeIfAbsent(key, k -> {
+            List<String> stack = frames.stream().limit(STACK_DEPTH).map(VirtualThreadPinningMonitor::describe).toList();
+            log.warn("Virtual thread pinned for {} ms at {} [{}]\n\tat {}", duration.toMillis(), k, source,
+                    String.join("\n\tat ", stack));
+            return new PinnedSite(k, source, stack);
+        });
+        pinnedSite.add(duration);
+
+        if (meterRegistry != null) {
+            Timer.builder("jvm.threads.virtual.pinned")
+                    .description("Time virtual threads spent pinned to their carrier while blocked")
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .record(duration);
+        }
+    }
+
+    /**
+     * The first frame outside the JDK, i.e. the code that entered the monitor or native call.
+     */
+    static String siteOf(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> !isJdkFrame(frame))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("(no stack trace)");
+    }
+
+    static String sourceOf(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = typeName(frame);
+            if (type.startsWith("com.mysql.")) {
+                return "mysql-driver";
+            }
+            if (type.startsWith("com.muscledia.")) {
+                return "application";
+            }
+        }
+        return "library";
+    }
+
+    private static boolean isJdkFrame(RecordedFrame frame) {
+        String type = typeName(frame);
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private static String typeName(RecordedFrame frame) {
+        return frame.getMethod() != null ? frame.getMethod().getType().getName() : "";
+    }
+
+    private static String describe(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "(unknown)";
+        }
+        return typeName(frame) + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    public record PinnedSiteReport(String site, String source, long count, double totalMillis, double maxMillis,
+                                   Instant lastSeen, List<String> stackTrace) {
+    }
+
+    private static final class PinnedSite {
+        private final String site;
+        private final String source;
+        private final List<String> stackTrace;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile Instant lastSeen;
+
+        private PinnedSite(String site, String source, List<String> stackTrace) {
+            this.site = site;
+            this.source = source;
+            this.stackTrace = stackTrace;
+        }
+
+        private void add(Duration duration) {
+            long nanos = duration.toNanos();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            lastSeen = Instant.now();
+        }
+
+        private PinnedSiteReport toReport() {
+            return new PinnedSiteReport(site, source, count.sum(), totalNanos.sum() / 1_000_000.0,
+                    maxNanos.get() / 1_000_000.0, lastSeen, stackTrace);
+        }
+    }
+}
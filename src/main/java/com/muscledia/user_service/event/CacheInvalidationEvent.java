@@ -0,0 +1,33 @@
+package com.muscledia.user_service.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Tells other nodes to drop a cached entry. A null key invalidates the whole region.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationEvent {
+
+    private String region;
+    private String key;
+    private String originNodeId;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant issuedAt;
+
+    /**
+     * Record key on the compacted topic: only the latest invalidation per entry is retained.
+     */
+    public String recordKey() {
+        return region + ":" + (key != null ? key : "*");
+    }
+}
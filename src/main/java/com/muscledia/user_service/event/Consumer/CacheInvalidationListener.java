@@ -0,0 +1,66 @@
+package com.muscledia.user_service.event.Consumer;
+
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.event.CacheInvalidationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Applies cache invalidations published by other nodes. Every node must see every message,
+ * so each one assigns itself all partitions instead of joining a consumer group, and starts
+ * from the end: there is no group to leave behind on the broker when the node goes away, and
+ * no committed offset to resume from, which a freshly started node with an empty cache does
+ * not need anyway.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+public class CacheInvalidationListener implements ConsumerSeekAware {
+
+    private final CacheInvalidator cacheInvalidator;
+    private final MeterRegistry meterRegistry;
+
+    @KafkaListener(
+            topicPartitions = @TopicPartition(
+                    topic = "${kafka.topics.cache-invalidations:user-cache-invalidations}",
+                    partitions = "#{@partitionFinder.partitions(@cacheInvalidationsTopic)}"),
+            containerFactory = "cacheInvalidationListenerContainerFactory")
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event == null || event.getRegion() == null) {
+            return;
+        }
+        if (cacheInvalidator.getNodeId().equals(event.getOriginNodeId())) {
+            return; // already evicted locally when it was issued
+        }
+
+        cacheInvalidator.evictLocal(event.getRegion(), event.getKey());
+        log.debug("Invalidated {} [{}] from node {}", event.getRegion(), event.getKey(), event.getOriginNodeId());
+
+        if (event.getIssuedAt() != null) {
+            Duration lag = Duration.between(event.getIssuedAt(), Instant.now());
+            Timer.builder("cache.invalidation.lag")
+                    .description("Time from an invalidation being issued on one node to it being applied on another")
+                    .tag("region", event.getRegion())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)
+                    .record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+}
@@ -0,0 +1,139 @@
+package com.muscledia.user_service.event.Consumer;
+
+import com.muscledia.user_service.event.NotificationRequestEvent;
+import com.muscledia.user_service.event.RetryTopics;
+import com.muscledia.user_service.notification.entity.NotificationType;
+import com.muscledia.user_service.notification.service.NotificationBatchWriter;
+import com.muscledia.user_service.notification.service.NotificationDraft;
+import com.muscledia.user_service.user.services.ActiveUserIdCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates notifications requested by other services over Kafka, one bulk insert per poll.
+ *
+ * User IDs are resolved through the {@link ActiveUserIdCache}; requests for unknown users
+ * are dead-lettered once the batch is written. A malformed request stops the batch at that
+ * record: everything before it is written and committed, the record goes to the DLT
+ * and consumption resumes after it. A batch that cannot be written goes to the retry
+ * topics (see {@link RetryTopics}), consumed here as well once each record is due.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+public class NotificationRequestListener {
+
+    private final NotificationBatchWriter batchWriter;
+    private final ActiveUserIdCache activeUserIds;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final MeterRegistry meterRegistry;
+    private final RetryTopics retryTopics;
+
+    @KafkaListener(
+            topics = "${kafka.topics.notification-requests:notification-requests}",
+            groupId = "${spring.application.name}-notification-requests",
+            containerFactory = "notificationRequestListenerContainerFactory")
+    public void onRequests(List<ConsumerRecord<String, NotificationRequestEvent>> records) {
+        List<NotificationDraft> drafts = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            NotificationDraft draft;
+            try {
+                draft = toDraft(records.get(i).value());
+            } catch (IllegalArgumentException e) {
+                write(drafts, records.subList(0, i));
+                meterRegistry.counter("notifications.requests.dead-lettered", "reason", "invalid").increment();
+                throw new BatchListenerFailedException(e.getMessage(), e, i);
+            }
+            drafts.add(draft);
+        }
+        write(drafts, records);
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topics.notification-requests:notification-requests}" + RetryTopics.TIER_SUFFIX + "0",
+            groupId = "${spring.application.name}-notification-requests-retry",
+            containerFactory = "notificationRequestRetryContainerFactory")
+    @KafkaListener(
+            topics = "${kafka.topics.notification-requests:notification-requests}" + RetryTopics.TIER_SUFFIX + "1",
+            groupId = "${spring.application.name}-notification-requests-retry",
+            containerFactory = "notificationRequestRetryContainerFactory")
+    @KafkaListener(
+            topics = "${kafka.topics.notification-requests:notification-requests}" + RetryTopics.TIER_SUFFIX + "2",
+            groupId = "${spring.application.name}-notification-requests-retry",
+            containerFactory = "notificationRequestRetryContainerFactory")
+    public void onRetries(List<ConsumerRecord<String, NotificationRequestEvent>> records, Acknowledgment ack) {
+        retryTopics.whenDue(records, ack, this::onRequests);
+    }
+
+    /**
+     * @param drafts one per record, in the same order
+     */
+    private void write(List<NotificationDraft> drafts, List<ConsumerRecord<String, NotificationRequestEvent>> records) {
+        if (drafts.isEmpty()) {
+            return;
+        }
+        Set<Long> known = activeUserIds.filterActive(drafts.stream().map(NotificationDraft::userId).toList());
+        List<NotificationDraft> writable = new ArrayList<>(drafts.size());
+        List<ConsumerRecord<String, NotificationRequestEvent>> unknown = new ArrayList<>();
+        for (int i = 0; i < drafts.size(); i++) {
+            if (known.contains(drafts.get(i).userId())) {
+                writable.add(drafts.get(i));
+            } else {
+                unknown.add(records.get(i));
+            }
+        }
+
+        int inserted = batchWriter.write(writable);
+        meterRegistry.counter("notifications.requests.inserted").increment(inserted);
+
+        for (ConsumerRecord<String, NotificationRequestEvent> record : unknown) {
+            try {
+                deadLetterRecoverer.accept(record,
+                        new IllegalArgumentException("Unknown user " + record.value().getUserId()));
+                meterRegistry.counter("notifications.requests.dead-lettered", "reason", "unknown-user").increment();
+            } catch (Exception e) {
+                // Never fail the batch here: it is already written and would be inserted twice
+                log.error("Failed to dead-letter notification request for unknown user {}: {}",
+                        record.value().getUserId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request is unusable; such records are not retried
+     */
+    static NotificationDraft toDraft(NotificationRequestEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Notification request could not be deserialized");
+        }
+        if (event.getUserId() == null) {
+            throw new IllegalArgumentException("Notification request has no userId");
+        }
+        if (event.getMessage() == null || event.getMessage().isBlank()) {
+            throw new IllegalArgumentException("Notification request has no message");
+        }
+        if (event.getType() == null) {
+            throw new IllegalArgumentException("Notification request has no type");
+        }
+        NotificationType type = NotificationType.valueOf(event.getType());
+        LocalDateTime createdAt = event.getOccurredAt() != null
+                ? LocalDateTime.ofInstant(event.getOccurredAt(), ZoneId.systemDefault())
+                : LocalDateTime.now();
+        return new NotificationDraft(event.getUserId(), type, event.getMessage(), createdAt);
+    }
+}
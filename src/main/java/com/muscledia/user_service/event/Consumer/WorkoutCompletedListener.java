@@ -0,0 +1,169 @@
+package com.muscledia.user_service.event.Consumer;
+
+import com.muscledia.user_service.event.KeyOrderedBatchProcessor;
+import com.muscledia.user_service.event.RetryTopics;
+import com.muscledia.user_service.event.WorkoutCompletedEvent;
+import com.muscledia.user_service.user.services.CompletedWorkout;
+import com.muscledia.user_service.user.services.WorkoutProgressWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts workouts completed in the workout service towards users' streaks and exp. Each
+ * poll is split by user into {@code lanes} that run concurrently on virtual threads (see
+ * {@link KeyOrderedBatchProcessor}), one {@link WorkoutProgressWriter} transaction per lane.
+ * Offsets are committed once every lane has committed; redelivered events are recognised
+ * by event ID.
+ *
+ * A malformed event stops its lane at that record: everything before it in the poll is
+ * committed, the record goes to the DLT and consumption resumes after it. Later workouts
+ * that other lanes already wrote are redelivered and skipped as duplicates.
+ *
+ * A lane that cannot be written, say on a deadlock, is retried in place from its first
+ * unwritten record for up to {@code max-retry-time}, so the user's later workouts are not
+ * counted before it. Only a workout still failing after that goes to the retry topics
+ * (see {@link RetryTopics}); a later workout of the same user counted meanwhile would
+ * restart the streak.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+public class WorkoutCompletedListener {
+
+    // Size of processed_events.event_id
+    private static final int MAX_EVENT_ID_LENGTH = 100;
+
+    private final WorkoutProgressWriter progressWriter;
+    private final RetryTopics retryTopics;
+    private final KeyOrderedBatchProcessor<WorkoutCompletedEvent> lanes;
+    private final Timer pollTimer;
+    private final DistributionSummary pollSize;
+    private final Counter appliedCounter;
+    private final Counter invalidCounter;
+
+    public WorkoutCompletedListener(WorkoutProgressWriter progressWriter,
+                                    RetryTopics retryTopics,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${kafka.consumers.workout-completed.lanes:4}") int lanes) {
+        this.progressWriter = progressWriter;
+        this.retryTopics = retryTopics;
+        this.lanes = new KeyOrderedBatchProcessor<>("workout-completed", lanes, meterRegistry);
+        this.pollTimer = Timer.builder("workouts.completed.poll")
+                .description("Time to apply one poll of completed workouts")
+                .register(meterRegistry);
+        this.pollSize = DistributionSummary.builder("workouts.completed.poll.records")
+                .description("Completed workout events per poll")
+                .register(meterRegistry);
+        this.appliedCounter = Counter.builder("workouts.completed.applied")
+                .description("Completed workouts applied to streaks and exp")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("workouts.completed.dead-lettered")
+                .description("Completed workout events sent to the DLT as invalid")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topics.workout-completed:workout-completed}",
+            groupId = "${spring.application.name}-workout-completed",
+            containerFactory = "workoutCompletedListenerContainerFactory")
+    public void onWorkoutsCompleted(List<ConsumerRecord<String, WorkoutCompletedEvent>> records) {
+        long start = System.nanoTime();
+        try {
+            // A user's workouts stay in one lane, in order, so streaks are counted in sequence
+            lanes.process(records, record -> record.value() != null ? record.value().getUserId() : null, this::applyLane);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            pollTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            pollSize.record(records.size());
+            log.debug("Processed {} completed workouts in {} ms ({} per second)", records.size(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), Math.round(records.size() * 1e9 / Math.max(1, elapsed)));
+        }
+    }
+
+    @KafkaListener(
+            topics = "${kafka.topics.workout-completed:workout-completed}" + RetryTopics.TIER_SUFFIX + "0",
+            groupId = "${spring.application.name}-workout-completed-retry",
+            containerFactory = "workoutCompletedRetryContainerFactory")
+    @KafkaListener(
+            topics = "${kafka.topics.workout-completed:workout-completed}" + RetryTopics.TIER_SUFFIX + "1",
+            groupId = "${spring.application.name}-workout-completed-retry",
+            containerFactory = "workoutCompletedRetryContainerFactory")
+    @KafkaListener(
+            topics = "${kafka.topics.workout-completed:workout-completed}" + RetryTopics.TIER_SUFFIX + "2",
+            groupId = "${spring.application.name}-workout-completed-retry",
+            containerFactory = "workoutCompletedRetryContainerFactory")
+    public void onRetries(List<ConsumerRecord<String, WorkoutCompletedEvent>> records, Acknowledgment ack) {
+        retryTopics.whenDue(records, ack, this::onWorkoutsCompleted);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.close();
+    }
+
+    /**
+     * One lane's records in one writer transaction. Lanes hold disjoint users, so their
+     * transactions never wait on each other's row locks.
+     */
+    private void applyLane(List<ConsumerRecord<String, WorkoutCompletedEvent>> records) {
+        List<CompletedWorkout> workouts = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            CompletedWorkout workout;
+            try {
+                workout = toWorkout(records.get(i).value());
+            } catch (IllegalArgumentException e) {
+                write(workouts);
+                invalidCounter.increment();
+                throw new BatchListenerFailedException(e.getMessage(), e, i);
+            }
+            workouts.add(workout);
+        }
+        write(workouts);
+    }
+
+    private void write(List<CompletedWorkout> workouts) {
+        if (!workouts.isEmpty()) {
+            appliedCounter.increment(progressWriter.write(workouts));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the event is unusable; such records are not retried
+     */
+    static CompletedWorkout toWorkout(WorkoutCompletedEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Workout completed event could not be deserialized");
+        }
+        if (event.getEventId() == null || event.getEventId().isBlank()) {
+            throw new IllegalArgumentException("Workout completed event has no eventId");
+        }
+        if (event.getEventId().length() > MAX_EVENT_ID_LENGTH) {
+            throw new IllegalArgumentException("Workout completed event ID is longer than " + MAX_EVENT_ID_LENGTH);
+        }
+        if (event.getUserId() == null) {
+            throw new IllegalArgumentException("Workout completed event has no userId");
+        }
+        if (event.getExpEarned() != null && event.getExpEarned() < 0) {
+            throw new IllegalArgumentException("Workout completed event has negative expEarned");
+        }
+        return new CompletedWorkout(event.getEventId(), event.getUserId(),
+                event.getCompletedAt() != null ? event.getCompletedAt() : Instant.now(),
+                event.getExpEarned() != null ? event.getExpEarned() : 0);
+    }
+}
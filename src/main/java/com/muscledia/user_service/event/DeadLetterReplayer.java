@@ -0,0 +1,161 @@
+package com.muscledia.user_service.event;
+
+import com.muscledia.user_service.event.dto.DeadLetterReplayResult;
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends dead letters back to the topic they came from, once whatever made them fail has been
+ * fixed. Records are read as raw bytes and republished unchanged with their original headers,
+ * minus the failure headers the dead letter publisher added. Progress is kept as committed
+ * offsets of the {@code <app>-dlt-replay} group, so each dead letter is replayed once.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+public class DeadLetterReplayer {
+
+    private static final int MAX_REPLAY = 10_000;
+    private static final String DEAD_LETTER_HEADER_PREFIX = "kafka_dlt-";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration JOIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final KafkaTemplate<String, byte[]> bytesKafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String bootstrapServers;
+    private final String groupId;
+    private final Set<String> replayableTopics;
+    // One replay at a time per node; another node replaying the same DLT shares its partitions
+    private final ReentrantLock replayLock = new ReentrantLock();
+
+    public DeadLetterReplayer(KafkaTemplate<String, byte[]> bytesKafkaTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers,
+                              @Value("${spring.application.name}") String applicationName,
+                              @Value("${kafka.topics.notification-requests:notification-requests}") String notificationRequestsTopic,
+                              @Value("${kafka.topics.workout-completed:workout-completed}") String workoutCompletedTopic) {
+        this.bytesKafkaTemplate = bytesKafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.bootstrapServers = bootstrapServers;
+        this.groupId = applicationName + "-dlt-replay";
+        this.replayableTopics = Set.of(notificationRequestsTopic, workoutCompletedTopic);
+    }
+
+    /**
+     * Republishes up to {@code limit} of the oldest dead letters of {@code topic} not replayed yet.
+     *
+     * @param topic the source topic, not its DLT
+     * @throws ResourceNotFoundException if this service keeps no dead letters for the topic
+     */
+    public DeadLetterReplayResult replay(String topic, int limit) {
+        if (!replayableTopics.contains(topic)) {
+            throw new ResourceNotFoundException("No dead letter topic for " + topic);
+        }
+        int max = Math.max(1, Math.min(limit, MAX_REPLAY));
+        String deadLetterTopic = topic + KafkaConsumerConfig.DEAD_LETTER_SUFFIX;
+
+        replayLock.lock();
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProps(max),
+                new StringDeserializer(), new ByteArrayDeserializer())) {
+            consumer.subscribe(List.of(deadLetterTopic));
+            List<ConsumerRecord<String, byte[]>> records = new ArrayList<>(max);
+            long deadline = System.nanoTime() + JOIN_TIMEOUT.toNanos();
+            while (records.size() < max) {
+                int before = records.size();
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (records.size() < max) {
+                        records.add(record);
+                    }
+                }
+                // An empty poll before the group has assigned partitions says nothing yet
+                boolean joined = !consumer.assignment().isEmpty() || System.nanoTime() > deadline;
+                if (records.size() == before && joined) {
+                    break;
+                }
+            }
+
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            List<CompletableFuture<?>> sends = new ArrayList<>(records.size());
+            for (ConsumerRecord<String, byte[]> record : records) {
+                sends.add(bytesKafkaTemplate.send(new ProducerRecord<>(topic, null, record.key(), record.value(),
+                        originalHeaders(record))));
+                offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+            }
+            // Only commit once every record is back on the source topic; a failed replay is repeated in full
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get();
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+            }
+            meterRegistry.counter("kafka.dead-letters.replayed", "topic", topic).increment(records.size());
+            log.info("Replayed {} dead letters from {} to {}", records.size(), deadLetterTopic, topic);
+            return new DeadLetterReplayResult(topic, records.size(), remaining(consumer, offsets));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying dead letters of " + topic, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to replay dead letters of " + topic + ": " + e.getCause().getMessage(), e);
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    /**
+     * Dead letters behind what was just replayed, on the partitions this consumer was assigned.
+     */
+    private static long remaining(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, OffsetAndMetadata> replayed) {
+        Set<TopicPartition> assigned = consumer.assignment();
+        Map<TopicPartition, Long> ends = consumer.endOffsets(assigned);
+        long remaining = 0;
+        for (TopicPartition partition : assigned) {
+            OffsetAndMetadata done = replayed.get(partition);
+            long position = done != null ? done.offset() : consumer.position(partition);
+            remaining += Math.max(0, ends.getOrDefault(partition, position) - position);
+        }
+        return remaining;
+    }
+
+    private static RecordHeaders originalHeaders(ConsumerRecord<String, byte[]> record) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DEAD_LETTER_HEADER_PREFIX) && !header.key().equals(RetryTopics.DUE_AT_HEADER)) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    private Map<String, Object> consumerProps(int maxPollRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        return props;
+    }
+}
@@ -0,0 +1,234 @@
+package com.muscledia.user_service.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Kafka configuration for the events this service consumes. Each listener gets a
+ * container factory bound to its payload type, so no type headers are needed from producers.
+ */
+@Configuration
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+@Slf4j
+public class KafkaConsumerConfig {
+
+    /** Dead letters of topic {@code t} and its retry topics go to {@code t + DEAD_LETTER_SUFFIX}, same partition. */
+    public static final String DEAD_LETTER_SUFFIX = ".DLT";
+
+    // Failures go to the retry topics straight away
+    private static final BackOff NO_RETRY_IN_PLACE = new FixedBackOff(0, 0);
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    private final ConcurrentKafkaListenerContainerFactoryConfigurer configurer;
+
+    public KafkaConsumerConfig(ConcurrentKafkaListenerContainerFactoryConfigurer configurer) {
+        this.configurer = configurer;
+    }
+
+    // ===========================================
+    // CACHE INVALIDATIONS
+    // ===========================================
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CacheInvalidationEvent> cacheInvalidationListenerContainerFactory() {
+        Map<String, Object> props = consumerProps();
+        // A node that starts has an empty cache: there is nothing older to invalidate
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        ConcurrentKafkaListenerContainerFactory<String, CacheInvalidationEvent> factory =
+                containerFactory(jsonConsumerFactory(props, CacheInvalidationEvent.class));
+        // Assigned without a consumer group, so there is nowhere to commit offsets to
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean
+    public PartitionFinder partitionFinder(KafkaAdmin kafkaAdmin) {
+        return new PartitionFinder(kafkaAdmin);
+    }
+
+    // ===========================================
+    // NOTIFICATION REQUESTS
+    // ===========================================
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, NotificationRequestEvent> notificationRequestListenerContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterRecoverer,
+            @Value("${kafka.consumers.notification-requests.max-poll-records:500}") int maxPollRecords) {
+        return batchContainerFactory(NotificationRequestEvent.class, deadLetterRecoverer, maxPollRecords,
+                ContainerProperties.AckMode.BATCH, NO_RETRY_IN_PLACE);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, NotificationRequestEvent> notificationRequestRetryContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterRecoverer,
+            @Value("${kafka.consumers.notification-requests.max-poll-records:500}") int maxPollRecords) {
+        return batchContainerFactory(NotificationRequestEvent.class, deadLetterRecoverer, maxPollRecords,
+                ContainerProperties.AckMode.MANUAL, NO_RETRY_IN_PLACE);
+    }
+
+    // ===========================================
+    // WORKOUTS COMPLETED
+    // ===========================================
+
+    /**
+     * Streaks are counted in order, so a user's later workouts must not overtake a failed one:
+     * failures are first retried in place, holding up the partition for up to
+     * {@code max-retry-time}, and only then passed on to the retry topics.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, WorkoutCompletedEvent> workoutCompletedListenerContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterRecoverer,
+            @Value("${kafka.consumers.workout-completed.max-poll-records:500}") int maxPollRecords,
+            @Value("${kafka.consumers.workout-completed.max-retry-time:2m}") Duration maxRetryTime) {
+        return batchContainerFactory(WorkoutCompletedEvent.class, deadLetterRecoverer, maxPollRecords,
+                ContainerProperties.AckMode.BATCH, inPlaceBackOff(maxRetryTime));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, WorkoutCompletedEvent> workoutCompletedRetryContainerFactory(
+            DeadLetterPublishingRecoverer deadLetterRecoverer,
+            @Value("${kafka.consumers.workout-completed.max-poll-records:500}") int maxPollRecords,
+            @Value("${kafka.consumers.workout-completed.max-retry-time:2m}") Duration maxRetryTime) {
+        return batchContainerFactory(WorkoutCompletedEvent.class, deadLetterRecoverer, maxPollRecords,
+                ContainerProperties.AckMode.MANUAL, inPlaceBackOff(maxRetryTime));
+    }
+
+    // ===========================================
+    // RETRIES AND DEAD LETTERS
+    // ===========================================
+
+    /**
+     * Publishes a failed record to the next retry topic, due after that tier's delay, or to
+     * {@code <topic>.DLT} (see {@link RetryTopics#nextTopic}). Every hop keeps the partition.
+     * Records that could not be deserialized are published as the original bytes.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<String, Object> kafkaTemplate,
+                                                             KafkaTemplate<String, byte[]> bytesKafkaTemplate,
+                                                             RetryTopics retryTopics,
+                                                             MeterRegistry meterRegistry) {
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(byte[].class, bytesKafkaTemplate);
+        templates.put(Object.class, kafkaTemplate);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates, (record, exception) -> {
+            String destination = retryTopics.nextTopic(record, exception);
+            meterRegistry.counter("kafka.retry.published", "topic", destination).increment();
+            return new TopicPartition(destination, record.partition());
+        });
+        recoverer.setHeadersFunction((record, exception) -> {
+            int tier = RetryTopics.tierOf(retryTopics.nextTopic(record, exception));
+            if (tier < 0) {
+                return null;
+            }
+            long dueAt = System.currentTimeMillis() + retryTopics.delay(tier).toMillis();
+            return new RecordHeaders().add(RetryTopics.DUE_AT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(dueAt).array());
+        });
+        // Keep the topic, partition and offset the record was first consumed from, not the last retry topic
+        recoverer.setAppendOriginalHeaders(false);
+        return recoverer;
+    }
+
+    /**
+     * Republishes dead letters and records that could not be deserialized as they were read.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> bytesKafkaTemplate() {
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        return new KafkaTemplate<>(
+                new DefaultKafkaProducerFactory<>(producerProps, new StringSerializer(), new ByteArraySerializer()));
+    }
+
+    // ===========================================
+    // SHARED
+    // ===========================================
+
+    private static BackOff inPlaceBackOff(Duration maxRetryTime) {
+        ExponentialBackOff backOff = new ExponentialBackOff(1_000, 2.0);
+        backOff.setMaxInterval(30_000);
+        backOff.setMaxElapsedTime(maxRetryTime.toMillis());
+        return backOff;
+    }
+
+    /**
+     * Batch listener: one poll is handed to the listener as a list. With {@code BATCH} acks the
+     * offsets are committed when the listener returns; {@code MANUAL} is for the retry topics,
+     * whose listener acknowledges the records that were due. A failed record is retried in
+     * place per {@code backOff}, which holds up its whole partition, then handed to the
+     * recoverer: everything before it is committed and consumption resumes after it. Invalid
+     * records are never retried in place.
+     */
+    private <V> ConcurrentKafkaListenerContainerFactory<String, V> batchContainerFactory(
+            Class<V> valueType, DeadLetterPublishingRecoverer deadLetterRecoverer, int maxPollRecords,
+            ContainerProperties.AckMode ackMode, BackOff backOff) {
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        ConcurrentKafkaListenerContainerFactory<String, V> factory = containerFactory(jsonConsumerFactory(props, valueType));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ackMode);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(deadLetterRecoverer, backOff);
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return props;
+    }
+
+    private <V> ConsumerFactory<String, V> jsonConsumerFactory(Map<String, Object> props, Class<V> valueType) {
+        JsonDeserializer<V> json = new JsonDeserializer<>(valueType, false);
+        json.addTrustedPackages("com.muscledia.*");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ErrorHandlingDeserializer<>(json));
+    }
+
+    /**
+     * Applies {@code spring.kafka.listener.*} (and virtual threads, when enabled) like the
+     * auto-configured factory does.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <V> ConcurrentKafkaListenerContainerFactory<String, V> containerFactory(ConsumerFactory<String, V> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, (ConsumerFactory) consumerFactory);
+        return factory;
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.support.serializer.JsonSerializer;
@@ -29,6 +30,18 @@ public class KafkaProducerConfig {
     @Value("${kafka.topics.user-events:user-events}")
     private String userEventsTopic;
 
+    @Value("${kafka.topics.cache-invalidations:user-cache-invalidations}")
+    private String cacheInvalidationsTopic;
+
+    @Value("${kafka.topics.notification-requests:notification-requests}")
+    private String notificationRequestsTopic;
+
+    @Value("${kafka.topics.workout-completed:workout-completed}")
+    private String workoutCompletedTopic;
+
+    @Value("${kafka.consumers.workout-completed.dead-letter-partitions:3}")
+    private int workoutCompletedDeadLetterPartitions;
+
     // ===========================================
     // TOPIC CREATION
     // ===========================================
@@ -42,6 +55,73 @@ public class KafkaProducerConfig {
                 ));
     }
 
+    @Bean
+    public NewTopic cacheInvalidationsTopic() {
+        // Compacted: only the latest invalidation per cache entry matters
+        return new NewTopic(cacheInvalidationsTopic, 3, (short) 1)
+                .configs(Map.of(
+                        "retention.ms", "3600000", // 1 hour
+                        "cleanup.policy", "compact,delete"
+                ));
+    }
+
+    @Bean
+    public NewTopic notificationRequestsTopic() {
+        return new NewTopic(notificationRequestsTopic, 3, (short) 1)
+                .configs(Map.of(
+                        "retention.ms", "604800000", // 7 days
+                        "cleanup.policy", "delete"
+                ));
+    }
+
+    @Bean
+    public NewTopic notificationRequestsDeadLetterTopic() {
+        // Same partition count: dead letters go to the partition the record came from
+        return new NewTopic(notificationRequestsTopic + KafkaConsumerConfig.DEAD_LETTER_SUFFIX, 3, (short) 1)
+                .configs(Map.of(
+                        "retention.ms", "2592000000", // 30 days
+                        "cleanup.policy", "delete"
+                ));
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics notificationRequestsRetryTopics() {
+        return retryTopics(notificationRequestsTopic, 3);
+    }
+
+    @Bean
+    public NewTopic workoutCompletedDeadLetterTopic() {
+        // The source topic belongs to the workout service; retries and dead letters keep their
+        // partition, so this needs at least as many partitions as it has
+        return new NewTopic(workoutCompletedTopic + KafkaConsumerConfig.DEAD_LETTER_SUFFIX,
+                workoutCompletedDeadLetterPartitions, (short) 1)
+                .configs(Map.of(
+                        "retention.ms", "2592000000", // 30 days
+                        "cleanup.policy", "delete"
+                ));
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics workoutCompletedRetryTopics() {
+        return retryTopics(workoutCompletedTopic, workoutCompletedDeadLetterPartitions);
+    }
+
+    /**
+     * The {@value RetryTopics#TIERS} retry topics of {@code topic}. A record spends at most the
+     * longest delay on one, so a day of retention covers a long consumer outage.
+     */
+    private static KafkaAdmin.NewTopics retryTopics(String topic, int partitions) {
+        NewTopic[] topics = new NewTopic[RetryTopics.TIERS];
+        for (int tier = 0; tier < RetryTopics.TIERS; tier++) {
+            topics[tier] = new NewTopic(RetryTopics.tierTopic(topic, tier), partitions, (short) 1)
+                    .configs(Map.of(
+                            "retention.ms", "86400000", // 1 day
+                            "cleanup.policy", "delete"
+                    ));
+        }
+        return new KafkaAdmin.NewTopics(topics);
+    }
+
     // ===========================================
     // PRODUCER CONFIGURATION
     // ===========================================
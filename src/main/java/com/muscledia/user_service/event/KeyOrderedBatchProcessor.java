@@ -0,0 +1,200 @@
+package com.muscledia.user_service.event;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processes the records of one poll of a batch listener on up to {@code lanes} virtual
+ * threads, beyond the one thread per partition a consumer group allows. Records are
+ * assigned to a lane by key hash, so records with the same key are handled by one lane
+ * in offset order while different keys run concurrently.
+ *
+ * {@link #process} returns once every lane is done, so with {@code AckMode.BATCH} the
+ * offsets are committed after the whole poll. When lanes fail it throws a
+ * {@link BatchListenerFailedException} for the earliest record (in poll order) that was not
+ * processed: every record before it was, and the error handler commits up to there and
+ * redelivers the rest. Records after that point which other lanes had already completed
+ * are delivered again, so lane handlers must be idempotent.
+ *
+ * A lane that is slow holds back the next poll; {@code max.poll.records} bounds by how much.
+ */
+public final class KeyOrderedBatchProcessor<V> implements AutoCloseable {
+
+    private final int lanes;
+    private final ExecutorService executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger busyLanes = new AtomicInteger();
+    private final Timer pollTimer;
+    private final Timer laneTimer;
+    private final Timer recordLag;
+
+    public KeyOrderedBatchProcessor(String name, int lanes, MeterRegistry meterRegistry) {
+        this.lanes = Math.max(1, lanes);
+        this.executor = this.lanes > 1
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-lane-", 0).factory())
+                : null;
+
+        Gauge.builder("kafka.lanes.in-flight", inFlight, AtomicInteger::get)
+                .description("Records handed to lanes and not yet processed")
+                .tag("listener", name)
+                .register(meterRegistry);
+        Gauge.builder("kafka.lanes.busy", busyLanes, AtomicInteger::get)
+                .description("Lanes currently processing records")
+                .tag("listener", name)
+                .register(meterRegistry);
+        this.pollTimer = Timer.builder("kafka.lanes.poll")
+                .description("Time from handing a poll to the lanes until the slowest lane is done")
+                .tag("listener", name)
+                .register(meterRegistry);
+        this.laneTimer = Timer.builder("kafka.lanes.lane")
+                .description("Time for one lane to process its share of a poll")
+                .tag("listener", name)
+                .register(meterRegistry);
+        this.recordLag = Timer.builder("kafka.lanes.record.lag")
+                .description("Time from a record being produced to it being processed")
+                .tag("listener", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param keyOf key whose records must be processed in order
+     * @param handler processes one lane's records in the order given. It may throw a
+     *                {@link BatchListenerFailedException} with an index into that list once
+     *                the records before it are processed; any other exception fails the
+     *                lane from its first record
+     */
+    public void process(List<ConsumerRecord<String, V>> records,
+                        Function<ConsumerRecord<String, V>, Object> keyOf,
+                        Consumer<List<ConsumerRecord<String, V>>> handler) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Lane<V>> assigned = assign(records, keyOf);
+
+        List<Failure> failures = new ArrayList<>();
+        if (executor == null || assigned.size() == 1) {
+            // Every lane runs even after one failed: records of other lanes may come earlier in the poll
+            for (Lane<V> lane : assigned) {
+                Failure failure = run(lane, handler);
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            }
+        } else {
+            List<Future<Failure>> futures = new ArrayList<>(assigned.size());
+            for (Lane<V> lane : assigned) {
+                futures.add(executor.submit(() -> run(lane, handler)));
+            }
+            for (Future<Failure> future : futures) {
+                Failure failure = await(future);
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            }
+        }
+        pollTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        Failure earliest = failures.stream()
+                .min(Comparator.comparingInt(Failure::index))
+                .orElse(null);
+        if (earliest != null) {
+            throw new BatchListenerFailedException(earliest.cause().getMessage(), earliest.cause(), earliest.index());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Lane<V>> assign(List<ConsumerRecord<String, V>> records,
+                                 Function<ConsumerRecord<String, V>, Object> keyOf) {
+        List<Lane<V>> byHash = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            byHash.add(new Lane<>());
+        }
+        for (int i = 0; i < records.size(); i++) {
+            Object key = keyOf.apply(records.get(i));
+            Lane<V> lane = byHash.get(key != null ? Math.floorMod(key.hashCode(), lanes) : 0);
+            lane.records.add(records.get(i));
+            lane.indexes.add(i);
+        }
+        return byHash.stream().filter(lane -> !lane.records.isEmpty()).toList();
+    }
+
+    /**
+     * @return null if the lane processed all its records
+     */
+    private Failure run(Lane<V> lane, Consumer<List<ConsumerRecord<String, V>>> handler) {
+        int size = lane.records.size();
+        inFlight.addAndGet(size);
+        busyLanes.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            handler.accept(lane.records);
+            recordLag(lane.records);
+            return null;
+        } catch (BatchListenerFailedException e) {
+            int failed = Math.max(0, e.getIndex());
+            recordLag(lane.records.subList(0, Math.min(failed, size)));
+            return new Failure(lane.indexes.get(Math.min(failed, size - 1)),
+                    e.getCause() != null ? e.getCause() : e);
+        } catch (RuntimeException e) {
+            return new Failure(lane.indexes.getFirst(), e);
+        } finally {
+            laneTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            busyLanes.decrementAndGet();
+            inFlight.addAndGet(-size);
+        }
+    }
+
+    private void recordLag(List<ConsumerRecord<String, V>> processed) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, V> record : processed) {
+            if (record.timestamp() > 0) {
+                recordLag.record(Duration.ofMillis(Math.max(0, now - record.timestamp())));
+            }
+        }
+    }
+
+    private static Failure await(Future<Failure> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for lanes", e);
+        } catch (ExecutionException e) {
+            // run() catches everything but errors
+            throw new IllegalStateException("Lane failed", e.getCause());
+        }
+    }
+
+    private static final class Lane<V> {
+        final List<ConsumerRecord<String, V>> records = new ArrayList<>();
+        // Index in the poll of each record
+        final List<Integer> indexes = new ArrayList<>();
+    }
+
+    private record Failure(int index, Throwable cause) {
+    }
+}
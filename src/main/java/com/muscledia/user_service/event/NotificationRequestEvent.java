@@ -0,0 +1,28 @@
+package com.muscledia.user_service.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Request from another service to notify a user, consumed from the notification-requests
+ * topic. {@code type} is a NotificationType name; {@code occurredAt} becomes the
+ * notification's creation time when present.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRequestEvent {
+
+    private Long userId;
+    private String type;
+    private String message;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant occurredAt;
+}
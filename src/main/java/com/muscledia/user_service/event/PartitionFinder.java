@@ -0,0 +1,25 @@
+package com.muscledia.user_service.event;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.stream.IntStream;
+
+/**
+ * Lists the partitions of a topic for listeners that assign themselves all of them instead of
+ * joining a consumer group. The topic is created first if need be: listeners resolve their
+ * partitions before {@link KafkaAdmin} creates the declared topics. Partitions added later
+ * are picked up on the next start.
+ */
+@RequiredArgsConstructor
+public class PartitionFinder {
+
+    private final KafkaAdmin kafkaAdmin;
+
+    public String[] partitions(NewTopic topic) {
+        kafkaAdmin.createOrModifyTopics(topic);
+        int partitions = kafkaAdmin.describeTopics(topic.name()).get(topic.name()).partitions().size();
+        return IntStream.range(0, partitions).mapToObj(String::valueOf).toArray(String[]::new);
+    }
+}
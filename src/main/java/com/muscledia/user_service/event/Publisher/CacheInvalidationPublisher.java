@@ -0,0 +1,38 @@
+package com.muscledia.user_service.event.Publisher;
+
+import com.muscledia.user_service.event.CacheInvalidationEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Publishes cache invalidations to the compacted invalidation topic.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+public class CacheInvalidationPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topics.cache-invalidations:user-cache-invalidations}")
+    private String cacheInvalidationsTopic;
+
+    public void publish(CacheInvalidationEvent event) {
+        try {
+            kafkaTemplate.send(cacheInvalidationsTopic, event.recordKey(), event)
+                    .whenComplete((result, exception) -> {
+                        if (exception != null) {
+                            log.error("Failed to publish cache invalidation {}: {}",
+                                    event.recordKey(), exception.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.error("Unexpected error publishing cache invalidation {}: {}", event.recordKey(), e.getMessage(), e);
+        }
+    }
+}
@@ -11,6 +11,8 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -89,6 +91,38 @@ public class UserEventPublisher {
         }
     }
 
+    /**
+     * Publish a batch of registration events (bulk import).
+     * All records are handed to the producer before any result is awaited, so they
+     * share producer batches instead of paying one round trip each.
+     */
+    public void publishUserRegisteredEvents(List<UserRegisteredEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(events.size());
+        for (UserRegisteredEvent event : events) {
+            if (!event.isValid()) {
+                log.error("Invalid UserRegisteredEvent skipped for user {}: {}", event.getUserId(), event);
+                continue;
+            }
+            futures.add(kafkaTemplate.send(userEventsTopic, "user-" + event.getUserId(), event));
+        }
+
+        int total = futures.size();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, exception) -> {
+                    long failed = futures.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+                    if (failed == 0) {
+                        log.info("Successfully published {} UserRegisteredEvents", total);
+                    } else {
+                        log.error("Failed to publish {} of {} UserRegisteredEvents: {}",
+                                failed, total, exception != null ? exception.getMessage() : "unknown error");
+                    }
+                });
+    }
+
     /**
      * Publish user profile updated event (optional - for future use)
      */
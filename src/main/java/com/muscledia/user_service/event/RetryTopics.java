@@ -0,0 +1,138 @@
+package com.muscledia.user_service.event;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking retries for the batch listeners. A record that fails is not retried in place,
+ * which would stall its partition, but republished to the first of {@value #TIERS} retry
+ * topics {@code <topic>.retry-0 .. retry-2}, and from each tier to the next; after the last
+ * tier, or straight away if it can never succeed, it goes to {@code <topic>.DLT}.
+ *
+ * Each tier has its own delay and its own listener container. Records carry the time they
+ * are due in the {@value #DUE_AT_HEADER} header; a tier listener processes the records that
+ * are due and pauses its consumer until the next one is, without leaving the group.
+ */
+@Component
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+public class RetryTopics {
+
+    public static final int TIERS = 3;
+    public static final String TIER_SUFFIX = ".retry-";
+    /** Epoch millis after which a record on a retry topic may be processed. */
+    public static final String DUE_AT_HEADER = "x-retry-due-at";
+
+    private final List<Duration> delays;
+
+    public RetryTopics(@Value("${kafka.retry.delays:10s,1m,10m}") List<Duration> delays) {
+        if (delays.size() != TIERS) {
+            throw new IllegalStateException("kafka.retry.delays needs " + TIERS + " delays, got " + delays);
+        }
+        this.delays = List.copyOf(delays);
+    }
+
+    public static String tierTopic(String topic, int tier) {
+        return topic + TIER_SUFFIX + tier;
+    }
+
+    /**
+     * @return the topic a main, retry or dead letter topic belongs to
+     */
+    public static String sourceTopic(String topic) {
+        int tierAt = topic.lastIndexOf(TIER_SUFFIX);
+        if (tierAt > 0) {
+            return topic.substring(0, tierAt);
+        }
+        return topic.endsWith(KafkaConsumerConfig.DEAD_LETTER_SUFFIX)
+                ? topic.substring(0, topic.length() - KafkaConsumerConfig.DEAD_LETTER_SUFFIX.length())
+                : topic;
+    }
+
+    /**
+     * @return the retry tier of {@code topic}, or -1 for a main topic
+     */
+    public static int tierOf(String topic) {
+        int tierAt = topic.lastIndexOf(TIER_SUFFIX);
+        return tierAt > 0 ? Integer.parseInt(topic.substring(tierAt + TIER_SUFFIX.length())) : -1;
+    }
+
+    public Duration delay(int tier) {
+        return delays.get(tier);
+    }
+
+    /**
+     * @return the topic a record that failed with {@code exception} is sent to
+     */
+    public String nextTopic(ConsumerRecord<?, ?> record, Exception exception) {
+        String source = sourceTopic(record.topic());
+        int next = tierOf(record.topic()) + 1;
+        if (next >= TIERS || !isRetryable(exception)) {
+            return source + KafkaConsumerConfig.DEAD_LETTER_SUFFIX;
+        }
+        return tierTopic(source, next);
+    }
+
+    /**
+     * Hands the records that are due to {@code handler} and acknowledges them; the consumer
+     * then sleeps until the first record that is not, which is redelivered. Records due
+     * later in other partitions of the poll wait with it.
+     *
+     * If the handler fails without naming a record, the first one is taken to have failed:
+     * the rest of the poll may not be due yet and must not be passed on with it.
+     */
+    public <V> void whenDue(List<ConsumerRecord<String, V>> records, Acknowledgment ack,
+                            Consumer<List<ConsumerRecord<String, V>>> handler) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < records.size(); i++) {
+            long dueAt = dueAt(records.get(i));
+            if (dueAt > now) {
+                if (i > 0) {
+                    handle(records.subList(0, i), handler);
+                }
+                ack.nack(i, Duration.ofMillis(dueAt - now));
+                return;
+            }
+        }
+        handle(records, handler);
+        ack.acknowledge();
+    }
+
+    private static <V> void handle(List<ConsumerRecord<String, V>> records,
+                                   Consumer<List<ConsumerRecord<String, V>>> handler) {
+        try {
+            handler.accept(records);
+        } catch (BatchListenerFailedException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BatchListenerFailedException(e.getMessage(), e, 0);
+        }
+    }
+
+    private static long dueAt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(DUE_AT_HEADER);
+        return header != null && header.value().length == Long.BYTES ? ByteBuffer.wrap(header.value()).getLong() : 0;
+    }
+
+    /**
+     * Invalid records fail the same way every time and go straight to the DLT.
+     */
+    private static boolean isRetryable(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException || cause instanceof DeserializationException) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
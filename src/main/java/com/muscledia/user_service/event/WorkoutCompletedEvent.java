@@ -0,0 +1,29 @@
+package com.muscledia.user_service.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Published by the workout service when a user finishes a workout, consumed from the
+ * workout-completed topic. {@code eventId} is unique per event and used to drop
+ * redeliveries; {@code expEarned} is added to the user's total exp.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkoutCompletedEvent {
+
+    private String eventId;
+    private Long userId;
+    private String workoutId;
+    private Long expEarned;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Instant completedAt;
+}
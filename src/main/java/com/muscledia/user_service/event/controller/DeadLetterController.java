@@ -0,0 +1,46 @@
+package com.muscledia.user_service.event.controller;
+
+import com.muscledia.user_service.event.DeadLetterReplayer;
+import com.muscledia.user_service.event.dto.DeadLetterReplayResult;
+import com.muscledia.user_service.security.annotation.IsAdmin;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+@Tag(name = "Dead letters", description = "Kafka dead letter administration APIs")
+@SecurityRequirement(name = "JWT")
+@ConditionalOnProperty(value = "kafka.events.enabled", havingValue = "true", matchIfMissing = false)
+public class DeadLetterController {
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    public DeadLetterController(DeadLetterReplayer deadLetterReplayer) {
+        this.deadLetterReplayer = deadLetterReplayer;
+    }
+
+    @IsAdmin
+    @Operation(summary = "Replay dead letters",
+            description = "Republishes the oldest dead letters of a consumed topic to that topic (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dead letters replayed"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Requires ADMIN role"),
+            @ApiResponse(responseCode = "404", description = "Topic has no dead letter topic in this service")
+    })
+    @PostMapping("/{topic}/replay")
+    public ResponseEntity<DeadLetterReplayResult> replay(
+            @Parameter(description = "Source topic, e.g. notification-requests") @PathVariable String topic,
+            @Parameter(description = "Dead letters to replay (max 10000)") @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(deadLetterReplayer.replay(topic, limit));
+    }
+}
@@ -0,0 +1,16 @@
+package com.muscledia.user_service.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayResult {
+
+    private String topic;
+    private int replayed;
+    // Dead letters left after the replayed ones, across all partitions
+    private long remaining;
+}
@@ -0,0 +1,34 @@
+package com.muscledia.user_service.event.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * IDs of consumed events whose effects are committed, written in the same transaction as
+ * those effects so a redelivered event is recognised and skipped. Rows older than the
+ * retention are deleted in the background.
+ */
+@Entity
+@Table(name = "processed_events", indexes = @Index(name = "idx_processed_events_time", columnList = "processed_at"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessedEvent {
+
+    @Id
+    @Column(name = "event_id", length = 100)
+    private String eventId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -1,7 +0,0 @@
-package com.muscledia.user_service.exception;
-
-public class BadgeAlreadyAwardedException extends RuntimeException {
-    public BadgeAlreadyAwardedException(String message) {
-        super(message);
-    }
-}
\ No newline at end of file
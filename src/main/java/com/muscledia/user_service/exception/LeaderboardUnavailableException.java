@@ -0,0 +1,7 @@
+package com.muscledia.user_service.exception;
+
+public class LeaderboardUnavailableException extends RuntimeException {
+    public LeaderboardUnavailableException(String message) {
+        super(message);
+    }
+}
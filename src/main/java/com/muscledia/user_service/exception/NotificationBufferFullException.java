@@ -0,0 +1,7 @@
+package com.muscledia.user_service.exception;
+
+public class NotificationBufferFullException extends RuntimeException {
+    public NotificationBufferFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,127 @@
+package com.muscledia.user_service.leaderboard.controller;
+
+import com.muscledia.user_service.leaderboard.dto.BadgeStats;
+import com.muscledia.user_service.leaderboard.dto.ChampionDefeatEntry;
+import com.muscledia.user_service.leaderboard.dto.ChampionLeaderboardPage;
+import com.muscledia.user_service.leaderboard.dto.ChampionStats;
+import com.muscledia.user_service.leaderboard.dto.GamificationStats;
+import com.muscledia.user_service.leaderboard.dto.LeaderboardPage;
+import com.muscledia.user_service.leaderboard.dto.LeaderboardPosition;
+import com.muscledia.user_service.leaderboard.service.ChampionDefeatLeaderboard;
+import com.muscledia.user_service.leaderboard.service.GamificationCounters;
+import com.muscledia.user_service.leaderboard.service.XpLeaderboard;
+import com.muscledia.user_service.security.JwtTokenProvider;
+import com.muscledia.user_service.security.annotation.IsUser;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@Tag(name = "Leaderboard", description = "User ranking APIs")
+@SecurityRequirement(name = "JWT")
+public class LeaderboardController {
+    private final XpLeaderboard xpLeaderboard;
+    private final ChampionDefeatLeaderboard championDefeatLeaderboard;
+    private final GamificationCounters gamificationCounters;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public LeaderboardController(XpLeaderboard xpLeaderboard,
+                                 ChampionDefeatLeaderboard championDefeatLeaderboard,
+                                 GamificationCounters gamificationCounters,
+                                 JwtTokenProvider jwtTokenProvider) {
+        this.xpLeaderboard = xpLeaderboard;
+        this.championDefeatLeaderboard = championDefeatLeaderboard;
+        this.gamificationCounters = gamificationCounters;
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    @IsUser
+    @Operation(summary = "Get XP leaderboard", description = "Retrieves a page of users ranked by total exp, highest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Leaderboard page retrieved successfully"),
+            @ApiResponse(responseCode = "503", description = "Leaderboard is loading, retry shortly")
+    })
+    @GetMapping("/xp")
+    public ResponseEntity<LeaderboardPage> getXpLeaderboard(
+            @Parameter(description = "Number of top users to skip") @RequestParam(defaultValue = "0") int offset,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(xpLeaderboard.page(offset, limit));
+    }
+
+    @IsUser
+    @Operation(summary = "Get own XP rank", description = "Retrieves the authenticated user's rank with the users directly above and below")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rank retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Token carries no user ID"),
+            @ApiResponse(responseCode = "404", description = "User is not on the leaderboard"),
+            @ApiResponse(responseCode = "503", description = "Leaderboard is loading, retry shortly")
+    })
+    @GetMapping("/xp/me")
+    public ResponseEntity<LeaderboardPosition> getOwnXpRank(
+            Authentication authentication,
+            @Parameter(description = "Users to include above and below (max 25)") @RequestParam(defaultValue = "5") int neighbours) {
+        Long userId = authentication.getCredentials() instanceof String token ? jwtTokenProvider.getUserId(token) : null;
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(xpLeaderboard.position(userId, neighbours));
+    }
+
+    @IsUser
+    @Operation(summary = "Get champion leaderboard", description = "Retrieves a page of the users who defeated a champion, fastest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Leaderboard page retrieved successfully")
+    })
+    @GetMapping("/champions/{championId}")
+    public ResponseEntity<ChampionLeaderboardPage> getChampionLeaderboard(
+            @Parameter(description = "Champion ID") @PathVariable Long championId,
+            @Parameter(description = "Number of faster users to skip") @RequestParam(defaultValue = "0") int offset,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(championDefeatLeaderboard.page(championId, offset, limit));
+    }
+
+    @IsUser
+    @Operation(summary = "Get user's champion rank", description = "Retrieves a user's rank and defeat time on a champion's leaderboard")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rank retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "User has not defeated the champion")
+    })
+    @GetMapping("/champions/{championId}/users/{userId}")
+    public ResponseEntity<ChampionDefeatEntry> getChampionRank(
+            @Parameter(description = "Champion ID") @PathVariable Long championId,
+            @Parameter(description = "User ID") @PathVariable Long userId) {
+        return ResponseEntity.ok(championDefeatLeaderboard.rankOf(championId, userId));
+    }
+
+    @IsUser
+    @Operation(summary = "Get badge rarity", description = "Retrieves how many users hold each badge and their share of all active users")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Badge statistics retrieved successfully")
+    })
+    @GetMapping("/stats/badges")
+    public ResponseEntity<GamificationStats<BadgeStats>> getBadgeStats() {
+        return ResponseEntity.ok(gamificationCounters.badgeStats());
+    }
+
+    @IsUser
+    @Operation(summary = "Get champion defeat rates", description = "Retrieves battles started, in progress and defeated for each champion")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Champion statistics retrieved successfully")
+    })
+    @GetMapping("/stats/champions")
+    public ResponseEntity<GamificationStats<ChampionStats>> getChampionStats() {
+        return ResponseEntity.ok(gamificationCounters.championStats());
+    }
+}
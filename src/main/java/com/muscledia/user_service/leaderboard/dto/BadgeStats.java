@@ -0,0 +1,16 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeStats {
+
+    private Long badgeId;
+    private long holders;
+    // Share of active users holding the badge; null while the user count is loading
+    private Double holderPercent;
+}
@@ -0,0 +1,19 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChampionDefeatEntry {
+
+    // 1-based, fastest first; equal times are ranked by user ID
+    private int rank;
+    private Long userId;
+    private long defeatSeconds;
+    private LocalDateTime defeatedAt;
+}
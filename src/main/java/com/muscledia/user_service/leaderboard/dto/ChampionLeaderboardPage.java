@@ -0,0 +1,20 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Entries {@code offset + 1} onwards of a champion's fastest-defeat ranking.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChampionLeaderboardPage {
+
+    private Long championId;
+    private int offset;
+    private List<ChampionDefeatEntry> entries;
+}
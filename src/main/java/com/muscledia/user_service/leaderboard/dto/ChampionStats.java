@@ -0,0 +1,18 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChampionStats {
+
+    private Long championId;
+    private long started;
+    private long inProgress;
+    private long defeated;
+    // Share of started battles that were won
+    private double defeatPercent;
+}
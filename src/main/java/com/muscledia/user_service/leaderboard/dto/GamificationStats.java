@@ -0,0 +1,17 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GamificationStats<T> {
+
+    // Active users, the base of the percentages; null while the XP leaderboard is loading
+    private Integer totalUsers;
+    private List<T> subjects;
+}
@@ -0,0 +1,16 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+
+    // 1-based; equal exp is ranked by user ID
+    private int rank;
+    private Long userId;
+    private long totalExp;
+}
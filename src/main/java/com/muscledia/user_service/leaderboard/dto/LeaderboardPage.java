@@ -0,0 +1,21 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Entries {@code offset + 1} to {@code offset + entries.size()} of a leaderboard of
+ * {@code total} users, highest first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardPage {
+
+    private int total;
+    private int offset;
+    private List<LeaderboardEntry> entries;
+}
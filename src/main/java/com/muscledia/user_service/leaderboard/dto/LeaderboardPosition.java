@@ -0,0 +1,23 @@
+package com.muscledia.user_service.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A user's rank, with the users directly above and below (the user included) as
+ * {@code neighbours}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardPosition {
+
+    private Long userId;
+    private int rank;
+    private long totalExp;
+    private int total;
+    private List<LeaderboardEntry> neighbours;
+}
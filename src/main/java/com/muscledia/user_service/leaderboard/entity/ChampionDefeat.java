@@ -0,0 +1,44 @@
+package com.muscledia.user_service.leaderboard.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rollup of defeated champion battles, one row per user and champion, so a champion's
+ * ranking is a range scan of {@code idx_champion_time} instead of a scan of user_champions.
+ * Written by {@link com.muscledia.user_service.leaderboard.service.ChampionDefeatLeaderboard}
+ * when a battle is won; removed with the user by the purge job.
+ */
+@Entity
+@Table(name = "champion_defeats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_champion_user", columnNames = {"champion_id", "user_id"}),
+        indexes = @Index(name = "idx_champion_time", columnList = "champion_id, defeat_seconds, user_id"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChampionDefeat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "champion_defeat_id")
+    private Long id;
+
+    @Column(name = "champion_id", nullable = false)
+    private Long championId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // From starting the battle to defeating the champion
+    @Column(name = "defeat_seconds", nullable = false)
+    private long defeatSeconds;
+
+    @Column(name = "defeated_at", nullable = false)
+    private LocalDateTime defeatedAt;
+}
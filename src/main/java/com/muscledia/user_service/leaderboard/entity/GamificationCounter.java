@@ -0,0 +1,54 @@
+package com.muscledia.user_service.leaderboard.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Rollup of user_badges and user_champions per badge and per champion, maintained in the
+ * same transaction as the award, battle start or defeat, so the totals are primary-key
+ * reads instead of {@code GROUP BY} scans. For a badge only {@code holders} is used; for a
+ * champion {@code holders} counts battles started, split into in progress and defeated.
+ */
+@Entity
+@Table(name = "gamification_counters")
+@IdClass(GamificationCounter.Key.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GamificationCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "subject_type", length = 16)
+    private GamificationSubject subjectType;
+
+    @Id
+    @Column(name = "subject_id")
+    private Long subjectId;
+
+    @Column(name = "holders", nullable = false)
+    private long holders;
+
+    @Column(name = "in_progress", nullable = false)
+    private long inProgress;
+
+    @Column(name = "defeated", nullable = false)
+    private long defeated;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private GamificationSubject subjectType;
+        private Long subjectId;
+    }
+}
@@ -0,0 +1,35 @@
+package com.muscledia.user_service.leaderboard.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker row written in the same transaction that seeds {@code gamification_counters} from
+ * user_badges and user_champions, so the seed runs exactly once however many counters the
+ * award and battle transactions have inserted meanwhile. Written only with SQL by
+ * {@code GamificationCounterBackfill}; mapped so the table is created with the schema.
+ */
+@Entity
+@Table(name = "gamification_counter_seed")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GamificationCounterSeed {
+
+    // Always 1: the table holds at most one row
+    @Id
+    @Column(name = "seed_id")
+    private Integer id;
+
+    @Column(name = "seeded_at", nullable = false)
+    private LocalDateTime seededAt;
+}
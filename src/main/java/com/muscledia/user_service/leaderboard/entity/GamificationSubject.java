@@ -0,0 +1,6 @@
+package com.muscledia.user_service.leaderboard.entity;
+
+public enum GamificationSubject {
+    BADGE,
+    CHAMPION
+}
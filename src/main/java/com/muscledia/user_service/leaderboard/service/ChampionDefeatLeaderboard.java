@@ -0,0 +1,203 @@
+package com.muscledia.user_service.leaderboard.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muscledia.user_service.config.cache.CacheInvalidationHandler;
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.leaderboard.dto.ChampionDefeatEntry;
+import com.muscledia.user_service.leaderboard.dto.ChampionLeaderboardPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Per-champion rankings of the fastest defeats.
+ *
+ * Every defeat is written to the {@code champion_defeats} rollup, whose
+ * {@code (champion_id, defeat_seconds, user_id)} index serves any page of a ranking and any
+ * user's rank as a range scan. The top {@code top-size} of each champion recently asked for
+ * are also kept in memory as a bounded heap, updated in place when a defeat commits on this
+ * node and dropped when another node reports one; the hall of fame is then served without a
+ * query. Heaps are reloaded after {@code top-ttl}, which also clears users purged meanwhile.
+ */
+@Service
+public class ChampionDefeatLeaderboard implements CacheInvalidationHandler {
+
+    public static final String REGION = "champion-defeat-leaderboard";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Comparator<Defeat> FASTEST_FIRST =
+            Comparator.comparingLong(Defeat::defeatSeconds).thenComparingLong(Defeat::userId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final int topSize;
+    private final Cache<Long, TopDefeats> topByChampion;
+
+    public ChampionDefeatLeaderboard(JdbcTemplate jdbcTemplate,
+                                     CacheInvalidator cacheInvalidator,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${muscledia.leaderboard.champions.top-size:10}") int topSize,
+                                     @Value("${muscledia.leaderboard.champions.max-champions:10000}") long maxChampions,
+                                     @Value("${muscledia.leaderboard.champions.top-ttl:10m}") Duration topTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = cacheInvalidator;
+        this.topSize = topSize;
+        this.topByChampion = Caffeine.newBuilder()
+                .maximumSize(maxChampions)
+                .expireAfterWrite(topTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, topByChampion, "championDefeatTop");
+    }
+
+    /**
+     * Adds a defeat to the rollup within the caller's transaction; the in-memory top follows
+     * once it commits. Battles without a start time cannot be timed and are not ranked.
+     */
+    public void recordDefeat(Long championId, Long userId, LocalDateTime startedAt, LocalDateTime defeatedAt) {
+        if (startedAt == null) {
+            return;
+        }
+        Defeat defeat = new Defeat(userId, Math.max(0, Duration.between(startedAt, defeatedAt).toSeconds()), defeatedAt);
+        jdbcTemplate.update(
+                "INSERT IGNORE INTO champion_defeats (champion_id, user_id, defeat_seconds, defeated_at) VALUES (?, ?, ?, ?)",
+                championId, userId, defeat.defeatSeconds(), defeatedAt);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offerLocal(championId, defeat);
+                }
+            });
+        } else {
+            offerLocal(championId, defeat);
+        }
+        cacheInvalidator.invalidateOtherNodes(REGION, championId);
+    }
+
+    /**
+     * @param offset number of faster users to skip
+     */
+    public ChampionLeaderboardPage page(Long championId, int offset, int limit) {
+        int from = Math.max(0, offset);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Defeat> defeats;
+        if (from + pageSize <= topSize) {
+            List<Defeat> top = topByChampion.get(championId, this::loadTop).sorted();
+            defeats = top.subList(Math.min(from, top.size()), Math.min(from + pageSize, top.size()));
+        } else {
+            defeats = jdbcTemplate.query(
+                    "SELECT user_id, defeat_seconds, defeated_at FROM champion_defeats WHERE champion_id = ? " +
+                            "ORDER BY defeat_seconds, user_id LIMIT ? OFFSET ?",
+                    (rs, rowNum) -> new Defeat(rs.getLong("user_id"), rs.getLong("defeat_seconds"),
+                            rs.getObject("defeated_at", LocalDateTime.class)),
+                    championId, pageSize, from);
+        }
+
+        List<ChampionDefeatEntry> entries = new ArrayList<>(defeats.size());
+        for (int i = 0; i < defeats.size(); i++) {
+            Defeat defeat = defeats.get(i);
+            entries.add(new ChampionDefeatEntry(from + i + 1, defeat.userId(), defeat.defeatSeconds(), defeat.defeatedAt()));
+        }
+        return new ChampionLeaderboardPage(championId, from, entries);
+    }
+
+    public ChampionDefeatEntry rankOf(Long championId, Long userId) {
+        List<Defeat> found = jdbcTemplate.query(
+                "SELECT user_id, defeat_seconds, defeated_at FROM champion_defeats WHERE champion_id = ? AND user_id = ?",
+                (rs, rowNum) -> new Defeat(rs.getLong("user_id"), rs.getLong("defeat_seconds"),
+                        rs.getObject("defeated_at", LocalDateTime.class)),
+                championId, userId);
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException(
+                    String.format("User %d has not defeated champion %d", userId, championId));
+        }
+        Defeat defeat = found.getFirst();
+        Long faster = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM champion_defeats WHERE champion_id = ? " +
+                        "AND (defeat_seconds < ? OR (defeat_seconds = ? AND user_id < ?))",
+                Long.class, championId, defeat.defeatSeconds(), defeat.defeatSeconds(), userId);
+        return new ChampionDefeatEntry((faster != null ? faster.intValue() : 0) + 1,
+                userId, defeat.defeatSeconds(), defeat.defeatedAt());
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (key == null) {
+            topByChampion.invalidateAll();
+        } else {
+            topByChampion.invalidate(Long.valueOf(key));
+        }
+    }
+
+    private void offerLocal(Long championId, Defeat defeat) {
+        TopDefeats top = topByChampion.getIfPresent(championId);
+        if (top != null) {
+            top.offer(defeat);
+        }
+    }
+
+    private TopDefeats loadTop(Long championId) {
+        TopDefeats top = new TopDefeats(topSize);
+        jdbcTemplate.query(
+                "SELECT user_id, defeat_seconds, defeated_at FROM champion_defeats WHERE champion_id = ? " +
+                        "ORDER BY defeat_seconds, user_id LIMIT ?",
+                (rs, rowNum) -> new Defeat(rs.getLong("user_id"), rs.getLong("defeat_seconds"),
+                        rs.getObject("defeated_at", LocalDateTime.class)),
+                championId, topSize).forEach(top::offer);
+        return top;
+    }
+
+    private record Defeat(long userId, long defeatSeconds, LocalDateTime defeatedAt) {
+    }
+
+    /**
+     * The {@code capacity} fastest defeats: a heap with the slowest on top, so a new defeat
+     * is compared with and replaces only that one.
+     */
+    private static final class TopDefeats {
+
+        private final int capacity;
+        private final PriorityQueue<Defeat> heap;
+
+        TopDefeats(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity + 1, FASTEST_FIRST.reversed());
+        }
+
+        synchronized void offer(Defeat defeat) {
+            // A defeat committed while the heap was loading may already be in it
+            if (heap.stream().anyMatch(existing -> existing.userId() == defeat.userId())) {
+                return;
+            }
+            heap.add(defeat);
+            if (heap.size() > capacity) {
+                heap.poll();
+            }
+        }
+
+        synchronized List<Defeat> sorted() {
+            List<Defeat> sorted = new ArrayList<>(heap);
+            sorted.sort(FASTEST_FIRST);
+            return sorted;
+        }
+    }
+}
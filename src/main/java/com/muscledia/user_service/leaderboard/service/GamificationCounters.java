@@ -0,0 +1,227 @@
+package com.muscledia.user_service.leaderboard.service;
+
+import com.muscledia.user_service.config.cache.CacheInvalidationHandler;
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.leaderboard.dto.BadgeStats;
+import com.muscledia.user_service.leaderboard.dto.ChampionStats;
+import com.muscledia.user_service.leaderboard.dto.GamificationStats;
+import com.muscledia.user_service.leaderboard.entity.GamificationSubject;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holders, battles in progress and defeats per badge and per champion.
+ *
+ * The counts live in the {@code gamification_counters} rollup and are changed by the same
+ * transaction as the award, battle start or defeat, so they never disagree with the rows
+ * they count. Reads are served from an in-memory mirror of that (small) table: a changed
+ * row is re-read by primary key once its transaction commits, on this node directly and on
+ * the others through the {@value #REGION} invalidation region. The mirror is also reloaded
+ * every {@code refresh-interval}.
+ */
+@Service
+public class GamificationCounters implements CacheInvalidationHandler {
+
+    public static final String REGION = "gamification-counters";
+
+    private static final String SELECT_SQL =
+            "SELECT subject_type, subject_id, holders, in_progress, defeated FROM gamification_counters";
+    private static final RowMapper<Map.Entry<Key, Counts>> ROW_MAPPER = (rs, rowNum) -> Map.entry(
+            new Key(GamificationSubject.valueOf(rs.getString("subject_type")), rs.getLong("subject_id")),
+            new Counts(rs.getLong("holders"), rs.getLong("in_progress"), rs.getLong("defeated")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final XpLeaderboard xpLeaderboard;
+
+    // Replaced whole on reload and changed only under the monitor, so a reload that read a
+    // row before a commit can never overwrite the newer value re-read after it
+    private volatile Map<Key, Counts> mirror;
+
+    public GamificationCounters(JdbcTemplate jdbcTemplate,
+                                CacheInvalidator cacheInvalidator,
+                                XpLeaderboard xpLeaderboard) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = cacheInvalidator;
+        this.xpLeaderboard = xpLeaderboard;
+    }
+
+    /**
+     * Must be called inside the transaction that awarded the badge.
+     */
+    public void badgeAwarded(Long badgeId) {
+        adjust(new Key(GamificationSubject.BADGE, badgeId), new Counts(1, 0, 0));
+    }
+
+    /**
+     * Must be called inside the transaction that started the battle.
+     */
+    public void battleStarted(Long championId) {
+        adjust(new Key(GamificationSubject.CHAMPION, championId), new Counts(1, 1, 0));
+    }
+
+    /**
+     * Must be called inside the transaction that marked the battle defeated.
+     */
+    public void championDefeated(Long championId) {
+        adjust(new Key(GamificationSubject.CHAMPION, championId), new Counts(0, -1, 1));
+    }
+
+    /**
+     * Takes a user's badges and battles out of the counters. Must run in the transaction
+     * that deletes those rows.
+     */
+    public void removeUser(Long userId) {
+        int badges = jdbcTemplate.update(
+                "UPDATE gamification_counters c JOIN (SELECT badge_id, COUNT(*) AS n FROM user_badges " +
+                        "WHERE user_id = ? GROUP BY badge_id) b ON c.subject_type = 'BADGE' AND c.subject_id = b.badge_id " +
+                        "SET c.holders = GREATEST(0, c.holders - b.n)",
+                userId);
+        int champions = jdbcTemplate.update(
+                "UPDATE gamification_counters c JOIN (SELECT champion_id, COUNT(*) AS n, " +
+                        "SUM(CASE WHEN defeated = TRUE THEN 1 ELSE 0 END) AS d FROM user_champions " +
+                        "WHERE user_id = ? GROUP BY champion_id) b " +
+                        "ON c.subject_type = 'CHAMPION' AND c.subject_id = b.champion_id " +
+                        "SET c.holders = GREATEST(0, c.holders - b.n), " +
+                        "c.in_progress = GREATEST(0, c.in_progress - (b.n - b.d)), " +
+                        "c.defeated = GREATEST(0, c.defeated - b.d)",
+                userId);
+        if (badges + champions > 0) {
+            cacheInvalidator.invalidateAll(REGION);
+        }
+    }
+
+    public GamificationStats<BadgeStats> badgeStats() {
+        Integer totalUsers = totalUsers();
+        List<BadgeStats> badges = mirror().entrySet().stream()
+                .filter(entry -> entry.getKey().type() == GamificationSubject.BADGE)
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingLong(Key::subjectId)))
+                .map(entry -> new BadgeStats(entry.getKey().subjectId(), entry.getValue().holders(),
+                        totalUsers == null ? null : percent(entry.getValue().holders(), totalUsers)))
+                .toList();
+        return new GamificationStats<>(totalUsers, badges);
+    }
+
+    public GamificationStats<ChampionStats> championStats() {
+        List<ChampionStats> champions = mirror().entrySet().stream()
+                .filter(entry -> entry.getKey().type() == GamificationSubject.CHAMPION)
+                .sorted(Map.Entry.comparingByKey(Comparator.comparingLong(Key::subjectId)))
+                .map(entry -> {
+                    Counts counts = entry.getValue();
+                    return new ChampionStats(entry.getKey().subjectId(), counts.holders(), counts.inProgress(),
+                            counts.defeated(), percent(counts.defeated(), counts.holders()));
+                })
+                .toList();
+        return new GamificationStats<>(totalUsers(), champions);
+    }
+
+    @Scheduled(fixedDelayString = "${muscledia.gamification.counters.refresh-interval:10m}")
+    public synchronized void reload() {
+        Map<Key, Counts> loaded = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL, ROW_MAPPER).forEach(entry -> loaded.put(entry.getKey(), entry.getValue()));
+        mirror = loaded;
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (key == null) {
+            reload();
+        } else {
+            refresh(Key.parse(key));
+        }
+    }
+
+    private void adjust(Key key, Counts delta) {
+        int updated = jdbcTemplate.update(
+                "UPDATE gamification_counters SET holders = GREATEST(0, holders + ?), " +
+                        "in_progress = GREATEST(0, in_progress + ?), defeated = GREATEST(0, defeated + ?) " +
+                        "WHERE subject_type = ? AND subject_id = ?",
+                delta.holders(), delta.inProgress(), delta.defeated(), key.type().name(), key.subjectId());
+        if (updated == 0) {
+            // First change for this badge or champion; a concurrent first change wins the insert
+            jdbcTemplate.update(
+                    "INSERT INTO gamification_counters (subject_type, subject_id, holders, in_progress, defeated) " +
+                            "VALUES (?, ?, GREATEST(0, ?), GREATEST(0, ?), GREATEST(0, ?)) " +
+                            "ON DUPLICATE KEY UPDATE holders = GREATEST(0, holders + ?), " +
+                            "in_progress = GREATEST(0, in_progress + ?), defeated = GREATEST(0, defeated + ?)",
+                    key.type().name(), key.subjectId(), delta.holders(), delta.inProgress(), delta.defeated(),
+                    delta.holders(), delta.inProgress(), delta.defeated());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(key);
+                }
+            });
+        } else {
+            refresh(key);
+        }
+        cacheInvalidator.invalidateOtherNodes(REGION, key);
+    }
+
+    private synchronized void refresh(Key key) {
+        if (mirror == null) {
+            return;
+        }
+        List<Map.Entry<Key, Counts>> row = jdbcTemplate.query(
+                SELECT_SQL + " WHERE subject_type = ? AND subject_id = ?", ROW_MAPPER,
+                key.type().name(), key.subjectId());
+        Map<Key, Counts> updated = new HashMap<>(mirror);
+        if (row.isEmpty()) {
+            updated.remove(key);
+        } else {
+            updated.put(key, row.getFirst().getValue());
+        }
+        mirror = updated;
+    }
+
+    private Map<Key, Counts> mirror() {
+        Map<Key, Counts> current = mirror;
+        if (current == null) {
+            reload();
+            current = mirror;
+        }
+        return current;
+    }
+
+    private Integer totalUsers() {
+        return xpLeaderboard.isReady() ? xpLeaderboard.size() : null;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(part * 10000.0 / whole) / 100.0;
+    }
+
+    private record Key(GamificationSubject type, long subjectId) {
+
+        static Key parse(String key) {
+            int separator = key.indexOf(':');
+            return new Key(GamificationSubject.valueOf(key.substring(0, separator)),
+                    Long.parseLong(key.substring(separator + 1)));
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + subjectId;
+        }
+    }
+
+    private record Counts(long holders, long inProgress, long defeated) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.muscledia.user_service.leaderboard.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Indexable skip list of {@code (userId, score)} entries, highest score first and lower user
+ * ID first among equal scores. Every forward link also stores how many entries it skips,
+ * which gives rank-of-entry and entry-at-rank in O(log n) next to the usual O(log n)
+ * insert and remove.
+ *
+ * Not thread-safe; {@link XpLeaderboard} guards it with a read-write lock.
+ */
+public final class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+    // Probability of promoting a node one more level; 1/4 keeps nodes small at the same search cost
+    private static final double P = 0.25;
+
+    private final Node head = new Node(0, 0, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void insert(long userId, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && precedes(x.next[i], userId, score)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(userId, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * @return false if no entry {@code (userId, score)} exists
+     */
+    public boolean remove(long userId, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && precedes(x.next[i], userId, score)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node node = x.next[0];
+        if (node == null || node.userId != userId || node.score != score) {
+            return false;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * @return the 1-based rank of {@code (userId, score)}, or 0 if it is not in the list
+     */
+    public int rankOf(long userId, long score) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && (precedes(x.next[i], userId, score) || x.next[i].is(userId, score))) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.is(userId, score)) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Up to {@code limit} entries starting at 1-based {@code fromRank}.
+     */
+    public List<Entry> range(int fromRank, int limit) {
+        List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(limit, size - fromRank + 1)));
+        Node x = nodeAt(fromRank);
+        for (int rank = fromRank; x != null && entries.size() < limit; rank++, x = x.next[0]) {
+            entries.add(new Entry(rank, x.userId, x.score));
+        }
+        return entries;
+    }
+
+    private Node nodeAt(int rank) {
+        if (rank < 1 || rank > size) {
+            return null;
+        }
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private static boolean precedes(Node node, long userId, long score) {
+        return node.score > score || (node.score == score && node.userId < userId);
+    }
+
+    private static int randomLevel() {
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (level < MAX_LEVEL && random.nextDouble() < P) {
+            level++;
+        }
+        return level;
+    }
+
+    public record Entry(int rank, long userId, long score) {
+    }
+
+    private static final class Node {
+        final long userId;
+        final long score;
+        final Node[] next;
+        // span[i]: how many entries next[i] is ahead of this node
+        final int[] span;
+
+        Node(long userId, long score, int level) {
+            this.userId = userId;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+
+        boolean is(long userId, long score) {
+            return this.userId == userId && this.score == score;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.muscledia.user_service.leaderboard.service;
+
+import com.muscledia.user_service.config.cache.CacheInvalidationHandler;
+import com.muscledia.user_service.exception.LeaderboardUnavailableException;
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.leaderboard.dto.LeaderboardEntry;
+import com.muscledia.user_service.leaderboard.dto.LeaderboardPage;
+import com.muscledia.user_service.leaderboard.dto.LeaderboardPosition;
+import com.muscledia.user_service.user.services.UserExpChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Global ranking of active users by total exp, held in memory in a {@link RankedSkipList} so
+ * that a page of the top users and the rank of any user are answered in O(log n) without
+ * touching the database.
+ *
+ * Changes on this node arrive as {@link UserExpChangedEvent}s after commit; other nodes are
+ * told through the {@value #REGION} invalidation region and re-read just that user's exp.
+ * The whole ranking is reloaded from a snapshot of the users table at startup and every
+ * {@code snapshot-interval}, on a replica when one is configured. That also picks up users
+ * added by bulk import and repairs anything a lost invalidation message left stale.
+ *
+ * A replica may not have applied the latest changes yet when the snapshot reads it, so every
+ * user changed from {@code snapshot-lag-window} before the snapshot started keeps the live
+ * value this node already has (read from the primary) instead of the snapshot's.
+ */
+@Service
+@Slf4j
+public class XpLeaderboard implements CacheInvalidationHandler {
+
+    public static final String REGION = "xp-leaderboard";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_NEIGHBOURS = 25;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate snapshotJdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final Duration snapshotInterval;
+    private final long snapshotLagWindowNanos;
+    private final Timer snapshotTimer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private RankedSkipList ranking = new RankedSkipList();
+    private Map<Long, Long> scores = new HashMap<>();
+    // System.nanoTime() of each user's latest change within snapshot-lag-window, oldest first
+    private final LinkedHashMap<Long, Long> recentChanges = new LinkedHashMap<>();
+    // While a snapshot loads, changes from this System.nanoTime() on are kept for it; null otherwise
+    private Long snapshotTrackedFrom;
+    private volatile boolean ready;
+
+    private final ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "xp-leaderboard-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public XpLeaderboard(JdbcTemplate jdbcTemplate,
+                         DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${muscledia.leaderboard.xp.snapshot-interval:1h}") Duration snapshotInterval,
+                         @Value("${muscledia.leaderboard.xp.snapshot-lag-window:30s}") Duration snapshotLagWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Streams the snapshot row by row (MySQL only does so with this fetch size)
+        // instead of buffering every user in the driver
+        this.snapshotJdbcTemplate = new JdbcTemplate(dataSource);
+        this.snapshotJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotLagWindowNanos = snapshotLagWindow.toNanos();
+
+        Gauge.builder("leaderboard.xp.size", this, XpLeaderboard::size)
+                .description("Users on the XP leaderboard")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("leaderboard.xp.snapshot")
+                .description("Time to reload the XP leaderboard from the users table")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        snapshots.scheduleWithFixedDelay(this::reloadQuietly, 0, snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshots.shutdownNow();
+    }
+
+    /**
+     * @param offset number of top users to skip
+     */
+    public LeaderboardPage page(int offset, int limit) {
+        requireReady();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        lock.readLock().lock();
+        try {
+            return new LeaderboardPage(ranking.size(), Math.max(0, offset),
+                    toEntries(ranking.range(Math.max(0, offset) + 1, pageSize)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public LeaderboardPosition position(Long userId, int neighbours) {
+        requireReady();
+        int around = Math.max(0, Math.min(neighbours, MAX_NEIGHBOURS));
+        lock.readLock().lock();
+        try {
+            Long exp = scores.get(userId);
+            if (exp == null) {
+                throw new ResourceNotFoundException("User " + userId + " is not on the leaderboard");
+            }
+            int rank = ranking.rankOf(userId, exp);
+            int from = Math.max(1, rank - around);
+            return new LeaderboardPosition(userId, rank, exp, ranking.size(),
+                    toEntries(ranking.range(from, rank - from + 1 + around)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ranking.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onExpChanged(UserExpChangedEvent event) {
+        update(event.userId(), event.totalExp());
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    /**
+     * Another node changed {@code key}'s exp: re-read it. Null reloads the whole ranking.
+     */
+    @Override
+    public void invalidate(String key) {
+        if (key == null) {
+            snapshots.execute(this::reloadQuietly);
+            return;
+        }
+        Long userId = Long.valueOf(key);
+        List<Long> exp = jdbcTemplate.queryForList(
+                "SELECT COALESCE(total_exp, 0) FROM users WHERE user_id = ? AND deleted_at IS NULL", Long.class, userId);
+        update(userId, exp.isEmpty() ? null : exp.getFirst());
+    }
+
+    /**
+     * @param totalExp null removes the user
+     */
+    private void update(Long userId, Long totalExp) {
+        lock.writeLock().lock();
+        try {
+            apply(ranking, scores, userId, totalExp);
+            long now = System.nanoTime();
+            recentChanges.remove(userId);
+            recentChanges.put(userId, now);
+            forgetChangesBefore(now - snapshotLagWindowNanos);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            snapshotTimer.record(this::reload);
+        } catch (Exception e) {
+            // The current ranking stays in use; the next snapshot retries
+            log.error("Failed to load the XP leaderboard: {}", e.getMessage(), e);
+            lock.writeLock().lock();
+            try {
+                snapshotTrackedFrom = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void reload() {
+        // Changes from here on may be missing from a lagging replica's snapshot
+        long trackedFrom = System.nanoTime() - snapshotLagWindowNanos;
+        lock.writeLock().lock();
+        try {
+            snapshotTrackedFrom = trackedFrom;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RankedSkipList loadedRanking = new RankedSkipList();
+        Map<Long, Long> loadedScores = new HashMap<>();
+        snapshotTransaction.executeWithoutResult(tx -> snapshotJdbcTemplate.query(
+                "SELECT user_id, COALESCE(total_exp, 0) AS total_exp FROM users WHERE deleted_at IS NULL",
+                (RowCallbackHandler) rs -> apply(loadedRanking, loadedScores, rs.getLong("user_id"), rs.getLong("total_exp"))));
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Long> change : recentChanges.entrySet()) {
+                if (change.getValue() - trackedFrom >= 0) {
+                    apply(loadedRanking, loadedScores, change.getKey(), scores.get(change.getKey()));
+                }
+            }
+            ranking = loadedRanking;
+            scores = loadedScores;
+            snapshotTrackedFrom = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded XP leaderboard: {} users", loadedScores.size());
+    }
+
+    /**
+     * Caller holds the write lock. Keeps what a loading snapshot still needs.
+     */
+    private void forgetChangesBefore(long nanoTime) {
+        if (snapshotTrackedFrom != null && snapshotTrackedFrom - nanoTime < 0) {
+            nanoTime = snapshotTrackedFrom;
+        }
+        var oldest = recentChanges.entrySet().iterator();
+        while (oldest.hasNext() && oldest.next().getValue() - nanoTime < 0) {
+            oldest.remove();
+        }
+    }
+
+    private static void apply(RankedSkipList ranking, Map<Long, Long> scores, Long userId, Long totalExp) {
+        Long previous = totalExp != null ? scores.put(userId, totalExp) : scores.remove(userId);
+        if (previous != null) {
+            ranking.remove(userId, previous);
+        }
+        if (totalExp != null) {
+            ranking.insert(userId, totalExp);
+        }
+    }
+
+    private void requireReady() {
+        if (!ready) {
+            throw new LeaderboardUnavailableException("Leaderboard is loading, retry shortly");
+        }
+    }
+
+    private static List<LeaderboardEntry> toEntries(List<RankedSkipList.Entry> entries) {
+        return entries.stream()
+                .map(entry -> new LeaderboardEntry(entry.rank(), entry.userId(), entry.score()))
+                .toList();
+    }
+}
@@ -1,23 +1,39 @@
 package com.muscledia.user_service.notification.controllers;
 
+import com.muscledia.user_service.notification.dto.BroadcastJobStatus;
+import com.muscledia.user_service.notification.dto.BroadcastNotificationRequest;
+import com.muscledia.user_service.notification.dto.MarkNotificationsReadRequest;
+import com.muscledia.user_service.notification.dto.MarkNotificationsReadResponse;
+import com.muscledia.user_service.notification.dto.NotificationCursor;
+import com.muscledia.user_service.notification.dto.NotificationPage;
 import com.muscledia.user_service.notification.entity.Notification;
 import com.muscledia.user_service.notification.entity.NotificationType;
 import com.muscledia.user_service.notification.service.INotificationService;
+import com.muscledia.user_service.notification.service.NotificationBroadcastService;
+import com.muscledia.user_service.notification.service.NotificationIngestionBuffer;
+import com.muscledia.user_service.notification.service.NotificationStreamService;
+import com.muscledia.user_service.security.JwtTokenProvider;
+import com.muscledia.user_service.security.annotation.IsAdmin;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -26,20 +42,51 @@ import java.util.List;
 @SecurityRequirement(name = "JWT")
 public class NotificationController {
     private final INotificationService notificationService;
+    private final NotificationStreamService notificationStreamService;
+    private final NotificationBroadcastService notificationBroadcastService;
+    private final NotificationIngestionBuffer notificationIngestionBuffer;
+    private final JwtTokenProvider jwtTokenProvider;
 
-    public NotificationController(@Qualifier("notificationServiceImpl") INotificationService notificationService) {
+    public NotificationController(@Qualifier("notificationServiceImpl") INotificationService notificationService,
+                                  NotificationStreamService notificationStreamService,
+                                  NotificationBroadcastService notificationBroadcastService,
+                                  ObjectProvider<NotificationIngestionBuffer> notificationIngestionBuffer,
+                                  JwtTokenProvider jwtTokenProvider) {
         this.notificationService = notificationService;
+        this.notificationStreamService = notificationStreamService;
+        this.notificationBroadcastService = notificationBroadcastService;
+        this.notificationIngestionBuffer = notificationIngestionBuffer.getIfAvailable();
+        this.jwtTokenProvider = jwtTokenProvider;
     }
 
-    @Operation(summary = "Get user notifications", description = "Retrieves all notifications for a specific user")
+    @Operation(summary = "Stream notifications", description = "Server-Sent Events stream of the authenticated user's new notifications ('notification' events, id = notificationId) and unread count ('unread-count' events). Reconnect with Last-Event-ID to replay missed notifications")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Notifications retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "401", description = "Token carries no user ID")
+    })
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            Authentication authentication,
+            @Parameter(description = "ID of the last notification received") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long userId = authentication.getCredentials() instanceof String token ? jwtTokenProvider.getUserId(token) : null;
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(notificationStreamService.connect(userId, lastEventId));
+    }
+
+    @Operation(summary = "Get user notifications", description = "Retrieves a page of a user's notifications, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Notifications retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping("/users/{userId}/notifications")
-    public ResponseEntity<List<Notification>> getUserNotifications(
-            @Parameter(description = "ID of the user") @PathVariable Long userId) {
-        List<Notification> notifications = notificationService.getUserNotifications(userId);
-        return ResponseEntity.ok(notifications);
+    public ResponseEntity<NotificationPage> getUserNotifications(
+            @Parameter(description = "ID of the user") @PathVariable Long userId,
+            @Parameter(description = "Cursor from the previous page (<createdAt>,<notificationId>)") @RequestParam(required = false) String before,
+            @Parameter(description = "Page size (max 200)") @RequestParam(defaultValue = "50") int limit) {
+        NotificationPage page = notificationService.getUserNotifications(userId, NotificationCursor.parse(before), limit);
+        return ResponseEntity.ok(page);
     }
 
     @Operation(summary = "Get notification by ID", description = "Retrieves a specific notification")
@@ -54,15 +101,18 @@ public class NotificationController {
         return ResponseEntity.ok(notification);
     }
 
-    @Operation(summary = "Get unread notifications", description = "Retrieves all unread notifications for a user")
+    @Operation(summary = "Get unread notifications", description = "Retrieves a page of a user's unread notifications, newest first")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Unread notifications retrieved successfully")
+            @ApiResponse(responseCode = "200", description = "Unread notifications retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
     @GetMapping("/users/{userId}/notifications/unread")
-    public ResponseEntity<List<Notification>> getUserUnreadNotifications(
-            @Parameter(description = "ID of the user") @PathVariable Long userId) {
-        List<Notification> unreadNotifications = notificationService.getUnreadUserNotifications(userId);
-        return ResponseEntity.ok(unreadNotifications);
+    public ResponseEntity<NotificationPage> getUserUnreadNotifications(
+            @Parameter(description = "ID of the user") @PathVariable Long userId,
+            @Parameter(description = "Cursor from the previous page (<createdAt>,<notificationId>)") @RequestParam(required = false) String before,
+            @Parameter(description = "Page size (max 200)") @RequestParam(defaultValue = "50") int limit) {
+        NotificationPage page = notificationService.getUnreadUserNotifications(userId, NotificationCursor.parse(before), limit);
+        return ResponseEntity.ok(page);
     }
 
     @Operation(summary = "Get unread notifications count", description = "Gets the count of unread notifications for a user")
@@ -88,29 +138,79 @@ public class NotificationController {
         return ResponseEntity.ok(updatedNotification);
     }
 
-    @Operation(summary = "Mark all notifications as read", description = "Marks all notifications for a user as read")
+    @Operation(summary = "Mark all notifications as read", description = "Marks all unread notifications for a user as read in a single update")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "204", description = "All notifications marked as read")
+            @ApiResponse(responseCode = "200", description = "All notifications marked as read; returns how many were unread")
     })
     @PatchMapping("/users/{userId}/notifications/read-all")
-    public ResponseEntity<Void> markAllUserNotificationsAsRead(
+    public ResponseEntity<MarkNotificationsReadResponse> markAllUserNotificationsAsRead(
             @Parameter(description = "ID of the user") @PathVariable Long userId) {
-        notificationService.markAllUserNotificationsAsRead(userId);
-        return ResponseEntity.noContent().build();
+        int updated = notificationService.markAllUserNotificationsAsRead(userId);
+        return ResponseEntity.ok(new MarkNotificationsReadResponse(updated));
     }
 
-    @Operation(summary = "Create notification", description = "Creates a new notification for a user")
+    @Operation(summary = "Mark notifications as read", description = "Marks the given notifications of a user as read in a single update. IDs belonging to other users are ignored")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Notification created successfully"),
+            @ApiResponse(responseCode = "200", description = "Notifications marked as read; returns how many changed"),
             @ApiResponse(responseCode = "400", description = "Invalid input")
     })
+    @PatchMapping("/users/{userId}/notifications/read")
+    public ResponseEntity<MarkNotificationsReadResponse> markUserNotificationsAsRead(
+            @Parameter(description = "ID of the user") @PathVariable Long userId,
+            @Valid @RequestBody MarkNotificationsReadRequest request) {
+        int updated = notificationService.markUserNotificationsAsRead(userId, request.getNotificationIds());
+        return ResponseEntity.ok(new MarkNotificationsReadResponse(updated));
+    }
+
+    @Operation(summary = "Create notification", description = "Creates a new notification for a user. With a groupKey, a repeat within the coalescing window updates the existing unread notification instead")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Notification created successfully"),
+            @ApiResponse(responseCode = "200", description = "Coalesced into an existing unread notification"),
+            @ApiResponse(responseCode = "202", description = "Accepted for asynchronous ingestion"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "User not found or deleted"),
+            @ApiResponse(responseCode = "503", description = "Ingestion buffer full, retry later")
+    })
     @PostMapping("/users/{userId}/notifications")
     public ResponseEntity<Notification> createNotification(
             @Parameter(description = "ID of the user") @PathVariable Long userId,
             @Parameter(description = "Type of the notification") @NotNull(message = "Notification type is required") @RequestParam NotificationType type,
-            @Parameter(description = "Notification message") @NotBlank(message = "Message is required") @RequestParam String message) {
-        Notification newNotification = notificationService.createNotification(userId, type, message);
-        return ResponseEntity.status(HttpStatus.CREATED).body(newNotification);
+            @Parameter(description = "Notification message") @NotBlank(message = "Message is required") @RequestParam String message,
+            @Parameter(description = "Coalesce with a recent unread notification of the same type and group") @Size(max = 100) @RequestParam(required = false) String groupKey) {
+        if (notificationIngestionBuffer != null && groupKey == null) {
+            // Async ingestion: written by the next group commit
+            notificationIngestionBuffer.submit(userId, type, message);
+            return ResponseEntity.accepted().build();
+        }
+        Notification notification = notificationService.createNotification(userId, type, message, groupKey);
+        HttpStatus status = notification.getOccurrenceCount() > 1 ? HttpStatus.OK : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(notification);
+    }
+
+    @IsAdmin
+    @Operation(summary = "Broadcast notification", description = "Queues a background job that sends a notification to every active user, optionally only those with the given goal type and/or role")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Broadcast queued; poll the job for progress"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Requires ADMIN role")
+    })
+    @PostMapping("/notifications/broadcast")
+    public ResponseEntity<BroadcastJobStatus> broadcastNotification(@Valid @RequestBody BroadcastNotificationRequest request) {
+        BroadcastJobStatus status = notificationBroadcastService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    @IsAdmin
+    @Operation(summary = "Get broadcast progress", description = "Reports the state of a broadcast job and how many notifications it has inserted so far")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found"),
+            @ApiResponse(responseCode = "404", description = "Job not found on this node"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Requires ADMIN role")
+    })
+    @GetMapping("/notifications/broadcast/{jobId}")
+    public ResponseEntity<BroadcastJobStatus> getBroadcastStatus(
+            @Parameter(description = "ID of the broadcast job") @PathVariable String jobId) {
+        return ResponseEntity.ok(notificationBroadcastService.getStatus(jobId));
     }
 
     @Operation(summary = "Delete notification", description = "Deletes a specific notification")
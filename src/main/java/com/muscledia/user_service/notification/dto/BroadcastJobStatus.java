@@ -0,0 +1,34 @@
+package com.muscledia.user_service.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a broadcast. {@code lastUserId} is the keyset position: every user up to and
+ * including it has been processed.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastJobStatus {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+    private State state;
+    private String type;
+    private String goalType;
+    private String role;
+    private long inserted;
+    private long chunks;
+    private Long lastUserId;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,30 @@
+package com.muscledia.user_service.notification.dto;
+
+import com.muscledia.user_service.notification.entity.NotificationType;
+import com.muscledia.user_service.user.entity.ERole;
+import com.muscledia.user_service.user.entity.GoalType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A notification sent to every active user, or only to those matching all of the given
+ * segment filters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastNotificationRequest {
+
+    @NotNull(message = "Notification type is required")
+    private NotificationType type;
+
+    @NotBlank(message = "Message is required")
+    private String message;
+
+    private GoalType goalType;
+
+    private ERole role;
+}
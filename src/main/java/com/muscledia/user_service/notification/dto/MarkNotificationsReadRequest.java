@@ -0,0 +1,19 @@
+package com.muscledia.user_service.notification.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkNotificationsReadRequest {
+
+    @NotEmpty(message = "At least one notification ID is required")
+    @Size(max = 500, message = "At most 500 notification IDs per request")
+    private List<Long> notificationIds;
+}
@@ -0,0 +1,17 @@
+package com.muscledia.user_service.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of notifications that changed from unread to read. Already-read notifications
+ * and IDs that do not belong to the user are not counted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkNotificationsReadResponse {
+
+    private int updated;
+}
@@ -0,0 +1,58 @@
+package com.muscledia.user_service.notification.dto;
+
+import com.muscledia.user_service.exception.InvalidCursorException;
+import com.muscledia.user_service.notification.entity.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in a notification feed: {@code <createdAt>,<notificationId>} of the last
+ * item seen. The id breaks ties between notifications created in the same instant.
+ */
+@Getter
+@AllArgsConstructor
+public class NotificationCursor {
+
+    private final LocalDateTime createdAt;
+    private final Long notificationId;
+
+    public static NotificationCursor of(Notification notification) {
+        return new NotificationCursor(notification.getCreatedAt(), notification.getNotificationId());
+    }
+
+    /**
+     * @return the parsed cursor, or null for a blank value (first page)
+     */
+    public static NotificationCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int comma = value.lastIndexOf(',');
+        if (comma < 0) {
+            throw new InvalidCursorException("Cursor must have the form <createdAt>,<notificationId>: " + value);
+        }
+        try {
+            return new NotificationCursor(
+                    LocalDateTime.parse(value.substring(0, comma).trim()),
+                    Long.parseLong(value.substring(comma + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Invalid notification cursor: " + value);
+        }
+    }
+
+    /**
+     * @return true if this position comes after {@code other} in ascending feed order
+     */
+    public boolean isAfter(NotificationCursor other) {
+        int byTime = createdAt.compareTo(other.createdAt);
+        return byTime > 0 || (byTime == 0 && notificationId > other.notificationId);
+    }
+
+    @Override
+    public String toString() {
+        return createdAt + "," + notificationId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.muscledia.user_service.notification.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.muscledia.user_service.notification.entity.Notification;
+import com.muscledia.user_service.notification.entity.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification as pushed over the live stream; detached from the lazily loaded user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDTO {
+
+    private Long notificationId;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long userId;
+
+    private NotificationType type;
+    private String message;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+    private String groupKey;
+    private Integer occurrenceCount;
+
+    public static NotificationDTO from(Notification notification) {
+        return NotificationDTO.builder()
+                .notificationId(notification.getNotificationId())
+                .userId(notification.getUser().getUserId())
+                .type(notification.getType())
+                .message(notification.getMessage())
+                .isRead(notification.getIsRead())
+                .createdAt(notification.getCreatedAt())
+                .groupKey(notification.getGroupKey())
+                .occurrenceCount(notification.getOccurrenceCount())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.muscledia.user_service.notification.dto;
+
+import com.muscledia.user_service.notification.entity.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a notification feed, newest first. Pass {@code nextCursor} as
+ * {@code before} to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationPage {
+
+    private List<Notification> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
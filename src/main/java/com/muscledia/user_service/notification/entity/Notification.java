@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "notifications", indexes = {
-        @Index(name = "idx_user_is_read", columnList = "user_id, is_read")
+        // Keyset feeds: unread feed and full feed, both ordered newest first
+        @Index(name = "idx_user_read_created", columnList = "user_id, is_read, created_at, notification_id"),
+        @Index(name = "idx_user_created", columnList = "user_id, created_at, notification_id"),
+        // Retention job: oldest notifications of a type
+        @Index(name = "idx_type_created", columnList = "type, created_at")
 })
 @Getter
 @Setter
@@ -38,9 +42,21 @@ public class Notification {
     @Column(name = "is_read", columnDefinition = "BOOLEAN DEFAULT FALSE")
     private Boolean isRead = false;
 
+    // Feed position: creation, or the latest repeat folded into this row
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    /**
+     * Notifications of the same type and group key are folded into one unread row until the
+     * coalescing window since the group's first one has passed (see {@link NotificationGroup});
+     * null never coalesces.
+     */
+    @Column(name = "group_key", length = 100)
+    private String groupKey;
+
+    @Column(name = "occurrence_count", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 1")
+    private Integer occurrenceCount = 1;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
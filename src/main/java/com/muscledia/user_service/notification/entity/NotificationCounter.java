@@ -0,0 +1,31 @@
+package com.muscledia.user_service.notification.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Persisted unread count per user, maintained in the same transaction as the notification
+ * change when {@code muscledia.notifications.unread-counter.persisted=true}. Lets a node
+ * rebuild a counter with a primary-key lookup instead of counting the user's notifications.
+ */
+@Entity
+@Table(name = "notification_counters")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private Long unreadCount;
+}
@@ -0,0 +1,63 @@
+package com.muscledia.user_service.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The open coalescing group of a user, type and group key: the unread notification that
+ * repeats fold into and when its group started. The primary key makes concurrent first
+ * notifications of a group queue on one row instead of each inserting their own. Kept
+ * apart from notifications so the key also holds once that table is partitioned. Written
+ * only with SQL by {@code NotificationServiceImpl}; mapped so the table is created with
+ * the schema.
+ */
+@Entity
+@Table(name = "notification_groups",
+        // Retention job: groups whose window has passed
+        indexes = @Index(name = "idx_started", columnList = "started_at"))
+@IdClass(NotificationGroup.Key.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationGroup {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 20)
+    private NotificationType type;
+
+    @Id
+    @Column(name = "group_key", length = 100)
+    private String groupKey;
+
+    // Null until the group's first notification is inserted
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    // Creation of the group's first notification; the coalescing window runs from here
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long userId;
+        private NotificationType type;
+        private String groupKey;
+    }
+}
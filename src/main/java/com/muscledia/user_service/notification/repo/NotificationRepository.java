@@ -1,15 +1,81 @@
 package com.muscledia.user_service.notification.repo;
 
 import com.muscledia.user_service.notification.entity.Notification;
-import com.muscledia.user_service.user.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUser_UserIdOrderByCreatedAtDesc(Long userId);
+    long countByUser_UserIdAndIsReadIsFalse(Long userId);
 
-    List<Notification> findByUser_UserIdAndIsReadOrderByCreatedAtDesc(Long userId, boolean isRead);
+    // Coalescing target, locked so a concurrent mark-as-read waits for the fold to commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.notificationId = :notificationId AND n.isRead = false")
+    Optional<Notification> findUnreadForUpdate(@Param("notificationId") Long notificationId);
 
-    long countByUser_UserIdAndIsReadIsFalse(Long userId);
+    // Row about to be deleted, locked so is_read cannot change before the delete counts it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.notificationId = :notificationId")
+    Optional<Notification> findForUpdate(@Param("notificationId") Long notificationId);
+
+    // Set-based mark-as-read: one statement, only unread rows are touched, and the
+    // user_id predicate doubles as the ownership check for explicit id lists
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE notifications SET is_read = TRUE WHERE user_id = :userId AND is_read = FALSE",
+            nativeQuery = true)
+    int markAllAsRead(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE notifications SET is_read = TRUE " +
+            "WHERE user_id = :userId AND notification_id IN (:notificationIds) AND is_read = FALSE",
+            nativeQuery = true)
+    int markAsRead(@Param("userId") Long userId, @Param("notificationIds") Collection<Long> notificationIds);
+
+    // Keyset feed pages: each is a bounded range scan of idx_user_created / idx_user_read_created,
+    // so the cost of a page does not depend on how many notifications the user has
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findFeedFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.notificationId < :notificationId)) " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findFeedPageBefore(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("notificationId") Long notificationId,
+                                          Pageable pageable);
+
+    // Live stream catch-up: notifications newer than the last one a client has seen, oldest first
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId " +
+            "AND (n.createdAt > :createdAt OR (n.createdAt = :createdAt AND n.notificationId > :notificationId)) " +
+            "ORDER BY n.createdAt ASC, n.notificationId ASC")
+    List<Notification> findFeedPageAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("notificationId") Long notificationId,
+                                         Pageable pageable);
+
+    @Query("SELECT n.createdAt FROM Notification n WHERE n.notificationId = :notificationId AND n.user.userId = :userId")
+    Optional<LocalDateTime> findCreatedAt(@Param("userId") Long userId, @Param("notificationId") Long notificationId);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId AND n.isRead = :isRead " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findFeedFirstPageByIsRead(@Param("userId") Long userId, @Param("isRead") boolean isRead,
+                                                 Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = :userId AND n.isRead = :isRead " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.notificationId < :notificationId)) " +
+            "ORDER BY n.createdAt DESC, n.notificationId DESC")
+    List<Notification> findFeedPageBeforeByIsRead(@Param("userId") Long userId, @Param("isRead") boolean isRead,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("notificationId") Long notificationId,
+                                                  Pageable pageable);
 }
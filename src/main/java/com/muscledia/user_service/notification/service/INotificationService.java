@@ -1,24 +1,49 @@
 package com.muscledia.user_service.notification.service;
 
+import com.muscledia.user_service.notification.dto.NotificationCursor;
+import com.muscledia.user_service.notification.dto.NotificationPage;
 import com.muscledia.user_service.notification.entity.Notification;
 import com.muscledia.user_service.notification.entity.NotificationType;
 
-import java.util.List;
+import java.util.Collection;
 
 public interface INotificationService {
     Notification createNotification(Long userId, NotificationType type, String message);
 
+    /**
+     * Like {@link #createNotification(Long, NotificationType, String)}, but if the user has an
+     * unread notification of the same type and {@code groupKey} whose group started within
+     * the coalescing window, that one is updated instead: its occurrence count goes up, it
+     * takes the new message and moves to the top of the feed. A null {@code groupKey} never
+     * coalesces.
+     */
+    Notification createNotification(Long userId, NotificationType type, String message, String groupKey);
+
     Notification getNotificationById(Long notificationId);
 
-    List<Notification> getUserNotifications(Long userId);
+    /**
+     * A page of the user's notifications, newest first, strictly older than {@code before}
+     * (null for the first page). {@code limit} is clamped to the configured maximum.
+     */
+    NotificationPage getUserNotifications(Long userId, NotificationCursor before, int limit);
 
-    List<Notification> getUnreadUserNotifications(Long userId);
+    NotificationPage getUnreadUserNotifications(Long userId, NotificationCursor before, int limit);
 
     long countUnreadNotifications(Long userId);
 
     Notification markNotificationAsRead(Long notificationId);
 
-    void markAllUserNotificationsAsRead(Long userId);
+    /**
+     * @return the number of notifications that were unread
+     */
+    int markAllUserNotificationsAsRead(Long userId);
+
+    /**
+     * Marks the given notifications read, ignoring any that do not belong to {@code userId}.
+     *
+     * @return the number of notifications that changed from unread to read
+     */
+    int markUserNotificationsAsRead(Long userId, Collection<Long> notificationIds);
 
     void deleteNotification(Long notificationId);
 }
@@ -0,0 +1,110 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.user.services.ActiveUserIdCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts many notifications in one transaction: user IDs are checked against the
+ * {@link ActiveUserIdCache} (one query for all misses), then a JDBC batch that the driver
+ * rewrites into multi-row INSERTs ({@code rewriteBatchedStatements}), then one counter
+ * adjustment per user.
+ *
+ * Drafts for unknown or deleted users are dropped. If the batch still hits a constraint
+ * (a user purged in between), it is retried row by row so one bad draft cannot sink the rest.
+ */
+@Component
+@Slf4j
+public class NotificationBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, type, message, is_read, created_at, occurrence_count) " +
+                    "VALUES (?, ?, ?, FALSE, ?, 1)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final ActiveUserIdCache activeUserIds;
+    private final Counter droppedCounter;
+
+    public NotificationBatchWriter(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   UnreadNotificationCounter unreadCounter,
+                                   ActiveUserIdCache activeUserIds,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCounter = unreadCounter;
+        this.activeUserIds = activeUserIds;
+        this.droppedCounter = Counter.builder("notifications.batch.dropped")
+                .description("Batched notifications dropped because their user does not exist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of notifications inserted
+     */
+    public int write(List<NotificationDraft> drafts) {
+        if (drafts.isEmpty()) {
+            return 0;
+        }
+        try {
+            Integer inserted = transactionTemplate.execute(tx -> insert(drafts));
+            return inserted != null ? inserted : 0;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch of {} notifications violated a constraint, retrying one by one: {}",
+                    drafts.size(), e.getMostSpecificCause().getMessage());
+            int inserted = 0;
+            for (NotificationDraft draft : drafts) {
+                try {
+                    Integer one = transactionTemplate.execute(tx -> insert(List.of(draft)));
+                    inserted += one != null ? one : 0;
+                } catch (DataIntegrityViolationException rowError) {
+                    droppedCounter.increment();
+                    log.warn("Dropping notification for user {}: {}", draft.userId(),
+                            rowError.getMostSpecificCause().getMessage());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private int insert(List<NotificationDraft> drafts) {
+        Set<Long> activeUsers = activeUserIds.filterActive(drafts.stream().map(NotificationDraft::userId).toList());
+        List<NotificationDraft> writable = drafts.stream()
+                .filter(draft -> activeUsers.contains(draft.userId()))
+                .toList();
+        if (writable.size() < drafts.size()) {
+            droppedCounter.increment(drafts.size() - writable.size());
+            log.debug("Dropping {} notifications for unknown or deleted users", drafts.size() - writable.size());
+        }
+        if (writable.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, writable, writable.size(), (ps, draft) -> {
+            ps.setLong(1, draft.userId());
+            ps.setString(2, draft.type().name());
+            ps.setString(3, draft.message());
+            ps.setTimestamp(4, Timestamp.valueOf(draft.createdAt()));
+        });
+
+        Map<Long, Long> perUser = writable.stream()
+                .collect(Collectors.groupingBy(NotificationDraft::userId, Collectors.counting()));
+        perUser.forEach(unreadCounter::adjust);
+        return writable.size();
+    }
+
+}
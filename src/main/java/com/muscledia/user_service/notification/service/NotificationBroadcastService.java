@@ -0,0 +1,267 @@
+package com.muscledia.user_service.notification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muscledia.user_service.config.datasource.ReplicaLagMonitor;
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.notification.dto.BroadcastJobStatus;
+import com.muscledia.user_service.notification.dto.BroadcastNotificationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends one notification to every active user, or to a segment of them, as a background job.
+ *
+ * Users are walked in primary-key order with a keyset cursor. Each chunk is a single
+ * {@code INSERT ... SELECT} over a closed {@code user_id} range, so no user rows travel to
+ * the application and the statement inserts the same rows when replayed on a replica.
+ * Between chunks the job pauses, and while a replica lags more than {@code max-replica-lag-seconds}
+ * it waits, which keeps replication lag bounded however many users there are. Every
+ * {@code counter-refresh-interval} the unread counters of the user ID range covered since
+ * the last refresh are dropped on every node; other users' counters stay cached.
+ *
+ * Jobs run one at a time per node; their progress is kept in memory on the node that
+ * accepted them.
+ */
+@Service
+@Slf4j
+public class NotificationBroadcastService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+    private final int batchSize;
+    private final Duration pause;
+    private final double maxReplicaLagSeconds;
+    private final Duration counterRefreshInterval;
+    private final Counter insertedCounter;
+    private final Counter throttledCounter;
+
+    private final Cache<String, BroadcastJobStatus> jobs = Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationBroadcastService(JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        UnreadNotificationCounter unreadCounter,
+                                        ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${muscledia.notifications.broadcast.batch-size:5000}") int batchSize,
+                                        @Value("${muscledia.notifications.broadcast.pause:50ms}") Duration pause,
+                                        @Value("${muscledia.notifications.broadcast.max-replica-lag-seconds:2}") double maxReplicaLagSeconds,
+                                        @Value("${muscledia.notifications.broadcast.counter-refresh-interval:10s}") Duration counterRefreshInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCounter = unreadCounter;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxReplicaLagSeconds = maxReplicaLagSeconds;
+        this.counterRefreshInterval = counterRefreshInterval;
+
+        this.insertedCounter = Counter.builder("notifications.broadcast.inserted")
+                .description("Notifications inserted by broadcast jobs")
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("notifications.broadcast.throttled")
+                .description("Times a broadcast waited for replicas to catch up")
+                .register(meterRegistry);
+    }
+
+    public BroadcastJobStatus submit(BroadcastNotificationRequest request) {
+        BroadcastJobStatus status = BroadcastJobStatus.builder()
+                .jobId(UUID.randomUUID().toString())
+                .state(BroadcastJobStatus.State.QUEUED)
+                .type(request.getType().name())
+                .goalType(request.getGoalType() != null ? request.getGoalType().name() : null)
+                .role(request.getRole() != null ? request.getRole().name() : null)
+                .submittedAt(LocalDateTime.now())
+                .build();
+        jobs.put(status.getJobId(), status);
+        executor.execute(() -> run(request, status));
+        log.info("Queued notification broadcast {} (goalType={}, role={})",
+                status.getJobId(), status.getGoalType(), status.getRole());
+        return copyOf(status);
+    }
+
+    public BroadcastJobStatus getStatus(String jobId) {
+        BroadcastJobStatus status = jobs.getIfPresent(jobId);
+        if (status == null) {
+            throw new ResourceNotFoundException("Broadcast job not found with ID: " + jobId);
+        }
+        synchronized (status) {
+            return copyOf(status);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(BroadcastNotificationRequest request, BroadcastJobStatus status) {
+        synchronized (status) {
+            status.setState(BroadcastJobStatus.State.RUNNING);
+            status.setStartedAt(LocalDateTime.now());
+        }
+
+        Segment segment = Segment.of(request);
+        long lastUserId = 0;
+        // Counters of users up to here have been refreshed
+        long refreshedUserId = 0;
+        long lastCounterRefresh = System.nanoTime();
+        try {
+            Long upperUserId;
+            while ((upperUserId = nextChunkEnd(lastUserId, segment)) != null) {
+                long lower = lastUserId;
+                long upper = upperUserId;
+                Integer inserted = transactionTemplate.execute(tx -> insertChunk(request, segment, lower, upper));
+                int rows = inserted != null ? inserted : 0;
+                insertedCounter.increment(rows);
+                lastUserId = upper;
+                synchronized (status) {
+                    status.setInserted(status.getInserted() + rows);
+                    status.setChunks(status.getChunks() + 1);
+                    status.setLastUserId(lastUserId);
+                }
+
+                if (System.nanoTime() - lastCounterRefresh >= counterRefreshInterval.toNanos()) {
+                    unreadCounter.invalidateRange(refreshedUserId, lastUserId);
+                    refreshedUserId = lastUserId;
+                    lastCounterRefresh = System.nanoTime();
+                }
+                throttle();
+            }
+            synchronized (status) {
+                status.setState(BroadcastJobStatus.State.COMPLETED);
+            }
+            log.info("Notification broadcast {} completed: {} notifications in {} chunks",
+                    status.getJobId(), status.getInserted(), status.getChunks());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(status, "Interrupted");
+        } catch (Exception e) {
+            log.error("Notification broadcast {} failed after user {}: {}",
+                    status.getJobId(), lastUserId, e.getMessage(), e);
+            fail(status, e.getMessage());
+        } finally {
+            synchronized (status) {
+                status.setFinishedAt(LocalDateTime.now());
+            }
+            unreadCounter.invalidateRange(refreshedUserId, lastUserId);
+        }
+    }
+
+    /**
+     * The highest user ID of the next chunk, or null when no users remain. Reads only the
+     * primary key (plus the segment columns) of at most {@code batch-size} rows.
+     */
+    private Long nextChunkEnd(long afterUserId, Segment segment) {
+        List<Object> args = new ArrayList<>();
+        args.add(afterUserId);
+        args.addAll(segment.args());
+        return jdbcTemplate.queryForObject(
+                "SELECT MAX(user_id) FROM (SELECT u.user_id FROM users u " +
+                        "WHERE u.user_id > ? AND u.deleted_at IS NULL" + segment.sql() +
+                        " ORDER BY u.user_id LIMIT " + batchSize + ") chunk",
+                Long.class, args.toArray());
+    }
+
+    private int insertChunk(BroadcastNotificationRequest request, Segment segment,
+                            long lowerExclusive, long upperInclusive) {
+        // Stamped per chunk, just before it commits: a job throttled for longer than the
+        // streams' late-commit-window would otherwise commit rows that open streams, already
+        // past that time, never scan for
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<Object> args = new ArrayList<>(List.of(request.getType().name(), request.getMessage(), createdAt,
+                lowerExclusive, upperInclusive));
+        args.addAll(segment.args());
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO notifications (user_id, type, message, is_read, created_at) " +
+                        "SELECT u.user_id, ?, ?, FALSE, ? FROM users u " +
+                        "WHERE u.user_id > ? AND u.user_id <= ? AND u.deleted_at IS NULL" + segment.sql() +
+                        " ORDER BY u.user_id",
+                args.toArray());
+
+        if (unreadCounter.isPersisted()) {
+            // Users without a counter row are seeded from the notifications table on their
+            // next change, which then already includes this notification
+            List<Object> counterArgs = new ArrayList<>(List.of(lowerExclusive, upperInclusive));
+            counterArgs.addAll(segment.args());
+            jdbcTemplate.update(
+                    "UPDATE notification_counters c JOIN users u ON u.user_id = c.user_id " +
+                            "SET c.unread_count = c.unread_count + 1 " +
+                            "WHERE u.user_id > ? AND u.user_id <= ? AND u.deleted_at IS NULL" + segment.sql(),
+                    counterArgs.toArray());
+        }
+        return inserted;
+    }
+
+    private void throttle() throws InterruptedException {
+        if (!pause.isZero()) {
+            Thread.sleep(pause);
+        }
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor == null) {
+            return;
+        }
+        while (monitor.getMaxLagSeconds() > maxReplicaLagSeconds) {
+            throttledCounter.increment();
+            log.debug("Broadcast waiting for replicas: lag {}s > {}s", monitor.getMaxLagSeconds(), maxReplicaLagSeconds);
+            Thread.sleep(Duration.ofSeconds(1));
+        }
+    }
+
+    private void fail(BroadcastJobStatus status, String error) {
+        synchronized (status) {
+            status.setState(BroadcastJobStatus.State.FAILED);
+            status.setError(error);
+        }
+    }
+
+    private static BroadcastJobStatus copyOf(BroadcastJobStatus status) {
+        return status.toBuilder().build();
+    }
+
+    /**
+     * Extra predicates on the {@code users u} alias, ANDed together.
+     */
+    private record Segment(String sql, List<Object> args) {
+
+        static Segment of(BroadcastNotificationRequest request) {
+            StringBuilder sql = new StringBuilder();
+            List<Object> args = new ArrayList<>();
+            if (request.getGoalType() != null) {
+                sql.append(" AND u.goal_type = ?");
+                args.add(request.getGoalType().name());
+            }
+            if (request.getRole() != null) {
+                sql.append(" AND (u.role_mask & ?) <> 0");
+                args.add(request.getRole().getBit());
+            }
+            return new Segment(sql.toString(), List.copyOf(args));
+        }
+    }
+}
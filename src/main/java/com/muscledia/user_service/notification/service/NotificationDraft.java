@@ -0,0 +1,12 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.notification.entity.NotificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification accepted for writing but not yet inserted. {@code createdAt} is the time
+ * it was accepted, so feed order follows request order rather than flush order.
+ */
+public record NotificationDraft(Long userId, NotificationType type, String message, LocalDateTime createdAt) {
+}
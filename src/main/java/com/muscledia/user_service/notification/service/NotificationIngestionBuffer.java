@@ -0,0 +1,256 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.exception.NotificationBufferFullException;
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.notification.entity.NotificationType;
+import com.muscledia.user_service.user.services.ActiveUserIdCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind ingestion for {@code POST /users/{userId}/notifications}: a request is
+ * validated (the user must exist and not be deleted, checked through
+ * {@link ActiveUserIdCache}), queued and acknowledged with 202, and a single flusher thread group-commits
+ * queued notifications through {@link NotificationBatchWriter}, once {@code batch-size} are
+ * waiting or the oldest has waited {@code flush-interval}. A full queue rejects with 503
+ * instead of growing without bound.
+ *
+ * With the journal enabled every accepted notification is first appended to a local
+ * {@link NotificationJournal}; whatever was not yet written when the process stopped is
+ * replayed on the next start. Without it, a crash loses at most the queued notifications.
+ */
+@Component
+@ConditionalOnProperty(value = "muscledia.notifications.ingestion.async", havingValue = "true")
+@Slf4j
+public class NotificationIngestionBuffer {
+
+    private final NotificationBatchWriter batchWriter;
+    private final ActiveUserIdCache activeUserIds;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final NotificationJournal journal;
+    // Keeps journal order and queue order identical, so commits are always a prefix
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final Timer flushTimer;
+    private final Timer delayTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejectedCounter;
+
+    public NotificationIngestionBuffer(NotificationBatchWriter batchWriter,
+                                       ActiveUserIdCache activeUserIds,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${muscledia.notifications.ingestion.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${muscledia.notifications.ingestion.batch-size:500}") int batchSize,
+                                       @Value("${muscledia.notifications.ingestion.flush-interval:100ms}") Duration flushInterval,
+                                       @Value("${muscledia.notifications.ingestion.journal.enabled:false}") boolean journalEnabled,
+                                       @Value("${muscledia.notifications.ingestion.journal.path:data/notification-journal.dat}") Path journalPath,
+                                       @Value("${muscledia.notifications.ingestion.journal.size:64MB}") DataSize journalSize,
+                                       @Value("${muscledia.notifications.ingestion.journal.force:false}") boolean journalForce) throws IOException {
+        this.batchWriter = batchWriter;
+        this.activeUserIds = activeUserIds;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.journal = journalEnabled
+                ? new NotificationJournal(journalPath, (int) journalSize.toBytes(), journalForce)
+                : null;
+        this.flusher = new Thread(this::flushLoop, "notification-flusher");
+        this.flusher.setDaemon(true);
+
+        Gauge.builder("notifications.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications accepted but not yet written")
+                .register(meterRegistry);
+        if (journal != null) {
+            Gauge.builder("notifications.ingestion.journal.used", journal, NotificationJournal::usedBytes)
+                    .description("Bytes of the journal holding unwritten notifications")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        this.flushTimer = Timer.builder("notifications.ingestion.flush.latency")
+                .description("Time to write one batch of buffered notifications")
+                .register(meterRegistry);
+        this.delayTimer = Timer.builder("notifications.ingestion.delay")
+                .description("Time from accepting a notification to committing it")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("notifications.ingestion.batch.size")
+                .description("Notifications per group commit")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("notifications.ingestion.rejected")
+                .description("Notifications rejected because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.start();
+    }
+
+    public void submit(Long userId, NotificationType type, String message) {
+        if (activeUserIds.filterActive(List.of(userId)).isEmpty()) {
+            // The batch writer would drop it silently after the 202
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        NotificationDraft draft = new NotificationDraft(userId, type, message, LocalDateTime.now());
+        appendLock.lock();
+        try {
+            if (queue.remainingCapacity() == 0) {
+                reject();
+            }
+            int offset = -1;
+            if (journal != null && (offset = journal.append(draft)) < 0) {
+                reject();
+            }
+            queue.add(new Pending(draft, offset, System.nanoTime()));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void reject() {
+        rejectedCounter.increment();
+        throw new NotificationBufferFullException("Notification buffer is full, retry later");
+    }
+
+    private void flushLoop() {
+        if (journal != null) {
+            replayJournal();
+        }
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (!collect(batch) || flush(batch)) {
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: the batch in hand is written below, with whatever is still queued
+            }
+        }
+        queue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            log.info("Writing {} buffered notifications before shutdown", batch.size());
+            flushOnce(batch);
+        }
+    }
+
+    /**
+     * Wait for the first notification, then up to {@code flush-interval} from its arrival
+     * for the batch to fill.
+     */
+    private boolean collect(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = first.acceptedAt() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    /**
+     * Retries until the batch is written: dropping it would lose acknowledged notifications,
+     * and while the database is down the full queue pushes back on callers with 503.
+     *
+     * @return false if shutdown began before the batch could be written
+     */
+    private boolean flush(List<Pending> batch) throws InterruptedException {
+        long backoff = 100;
+        while (!flushOnce(batch)) {
+            if (!running) {
+                return false;
+            }
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, 5_000);
+        }
+        return true;
+    }
+
+    private boolean flushOnce(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            batchWriter.write(batch.stream().map(Pending::draft).toList());
+        } catch (Exception e) {
+            log.warn("Failed to write {} buffered notifications: {}", batch.size(), e.getMessage());
+            return false;
+        }
+        long now = System.nanoTime();
+        flushTimer.record(now - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        batch.forEach(pending -> delayTimer.record(now - pending.acceptedAt(), TimeUnit.NANOSECONDS));
+        if (journal != null) {
+            journal.commit(batch.getLast().journalOffset());
+        }
+        return true;
+    }
+
+    private void replayJournal() {
+        List<NotificationJournal.Entry> entries = journal.pending();
+        if (entries.isEmpty()) {
+            return;
+        }
+        log.info("Replaying {} notifications from the journal", entries.size());
+        for (int from = 0; from < entries.size() && running; from += batchSize) {
+            List<Pending> batch = entries.subList(from, Math.min(from + batchSize, entries.size())).stream()
+                    .map(entry -> new Pending(entry.draft(), entry.endOffset(), System.nanoTime()))
+                    .toList();
+            try {
+                flush(batch);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private record Pending(NotificationDraft draft, int journalOffset, long acceptedAt) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.notification.entity.NotificationType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring buffer of accepted-but-unwritten notifications in a memory-mapped file, so a process
+ * crash does not lose what was acknowledged with 202. Writes go to the page cache; with
+ * {@code force} every append is also synced to disk, which survives an OS crash too at the
+ * cost of one sync per request.
+ *
+ * Layout: a 16-byte header holding the checkpoint (first record not yet in the database)
+ * and the end (where the next record goes), followed by records
+ * {@code [int length][long userId][long createdAt millis][short typeLength][type][int messageLength][message]}.
+ * A length of {@code -1}, or fewer than 4 bytes left, means the next record is at the start.
+ */
+public class NotificationJournal implements AutoCloseable {
+
+    static final int HEADER_SIZE = 16;
+    private static final int WRAP_MARKER = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean force;
+    private int checkpoint;
+    private int end;
+
+    public NotificationJournal(Path path, int capacity, boolean force) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.capacity = capacity;
+        this.force = force;
+
+        long storedCheckpoint = buffer.getLong(0);
+        long storedEnd = buffer.getLong(8);
+        if (isValidOffset(storedCheckpoint) && isValidOffset(storedEnd)) {
+            checkpoint = (int) storedCheckpoint;
+            end = (int) storedEnd;
+        } else {
+            // New file, or one created with a different size
+            checkpoint = HEADER_SIZE;
+            end = HEADER_SIZE;
+            writeHeader();
+        }
+    }
+
+    /**
+     * @return the offset just past the appended record, to {@link #commit} once it is
+     * written; -1 if the journal is full
+     */
+    public synchronized int append(NotificationDraft draft) {
+        byte[] record = encode(draft);
+        int position = end;
+        if (end >= checkpoint) {
+            if (capacity - end < record.length) {
+                // Does not fit at the tail: wrap if the start has been freed
+                if (HEADER_SIZE + record.length >= checkpoint) {
+                    return -1;
+                }
+                if (capacity - end >= Integer.BYTES) {
+                    buffer.putInt(end, WRAP_MARKER);
+                }
+                position = HEADER_SIZE;
+            }
+        } else if (end + record.length >= checkpoint) {
+            return -1;
+        }
+
+        buffer.put(position, record);
+        end = position + record.length;
+        writeHeader();
+        if (force) {
+            buffer.force();
+        }
+        return end;
+    }
+
+    /**
+     * Everything up to {@code offset} is in the database. Commits must come in append order.
+     */
+    public synchronized void commit(int offset) {
+        checkpoint = offset;
+        if (checkpoint == end) {
+            // Empty: start over at the front, which keeps records from wrapping needlessly
+            checkpoint = HEADER_SIZE;
+            end = HEADER_SIZE;
+        }
+        writeHeader();
+    }
+
+    /**
+     * Records appended but never committed, oldest first, e.g. left over from a crash.
+     */
+    public synchronized List<Entry> pending() {
+        List<Entry> entries = new ArrayList<>();
+        int position = checkpoint;
+        while (position != end) {
+            if (capacity - position < Integer.BYTES || buffer.getInt(position) == WRAP_MARKER) {
+                position = HEADER_SIZE;
+                continue;
+            }
+            int length = buffer.getInt(position);
+            ByteBuffer record = buffer.slice(position + Integer.BYTES, length - Integer.BYTES);
+            position += length;
+            entries.add(new Entry(decode(record), position));
+        }
+        return entries;
+    }
+
+    public synchronized int usedBytes() {
+        return end >= checkpoint ? end - checkpoint : capacity - checkpoint + end - HEADER_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private boolean isValidOffset(long offset) {
+        return offset >= HEADER_SIZE && offset <= capacity;
+    }
+
+    private void writeHeader() {
+        buffer.putLong(0, checkpoint);
+        buffer.putLong(8, end);
+    }
+
+    private static byte[] encode(NotificationDraft draft) {
+        byte[] type = draft.type().name().getBytes(StandardCharsets.UTF_8);
+        byte[] message = draft.message().getBytes(StandardCharsets.UTF_8);
+        int length = Integer.BYTES + Long.BYTES + Long.BYTES + Short.BYTES + type.length + Integer.BYTES + message.length;
+        return ByteBuffer.allocate(length)
+                .putInt(length)
+                .putLong(draft.userId())
+                .putLong(draft.createdAt().toInstant(ZoneOffset.UTC).toEpochMilli())
+                .putShort((short) type.length)
+                .put(type)
+                .putInt(message.length)
+                .put(message)
+                .array();
+    }
+
+    private static NotificationDraft decode(ByteBuffer record) {
+        long userId = record.getLong();
+        long createdAt = record.getLong();
+        byte[] type = new byte[record.getShort()];
+        record.get(type);
+        byte[] message = new byte[record.getInt()];
+        record.get(message);
+        return new NotificationDraft(userId,
+                NotificationType.valueOf(new String(type, StandardCharsets.UTF_8)),
+                new String(message, StandardCharsets.UTF_8),
+                LocalDateTime.ofEpochSecond(Math.floorDiv(createdAt, 1000),
+                        (int) Math.floorMod(createdAt, 1000) * 1_000_000, ZoneOffset.UTC));
+    }
+
+    public record Entry(NotificationDraft draft, int endOffset) {
+    }
+}
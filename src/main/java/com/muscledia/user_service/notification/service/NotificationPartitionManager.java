@@ -0,0 +1,129 @@
+package com.muscledia.user_service.notification.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps the monthly {@code RANGE COLUMNS (created_at)} partitions of the notifications table
+ * rolling: creates the coming months' partitions by splitting {@code p_future}, and drops a
+ * partition once everything in it is older than the longest retention. Dropping a partition
+ * is a metadata change, however many rows it holds, where deleting them row by row would
+ * churn the indexes and the undo log.
+ *
+ * Partition {@code pYYYYMM} holds that month and is bounded by the first day of the next.
+ */
+@Component
+@ConditionalOnProperty(value = "muscledia.notifications.retention.partitioning.enabled", havingValue = "true")
+@EnableConfigurationProperties(NotificationRetentionProperties.class)
+@Slf4j
+public class NotificationPartitionManager {
+
+    static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationRetentionProperties properties;
+
+    public NotificationPartitionManager(JdbcTemplate jdbcTemplate,
+                                        UnreadNotificationCounter unreadCounter,
+                                        NotificationRetentionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.unreadCounter = unreadCounter;
+        this.properties = properties;
+    }
+
+    /**
+     * @return approximate number of rows removed with dropped partitions
+     */
+    public long maintain() {
+        List<Partition> partitions = partitions();
+        if (partitions.isEmpty()) {
+            log.warn("Notification partitioning is enabled but the notifications table is not partitioned; " +
+                    "see db/notifications-partitioning.sql");
+            return 0;
+        }
+        createUpcoming(partitions);
+        return dropExpired(partitions);
+    }
+
+    private void createUpcoming(List<Partition> partitions) {
+        if (partitions.stream().noneMatch(partition -> FUTURE_PARTITION.equals(partition.name()))) {
+            log.warn("Notifications table has no {} partition; not creating monthly partitions", FUTURE_PARTITION);
+            return;
+        }
+        LocalDate highestBound = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(bound -> bound != null)
+                .max(LocalDate::compareTo)
+                .orElse(LocalDate.MIN);
+
+        YearMonth last = YearMonth.now().plusMonths(properties.getPartitioning().getMonthsAhead());
+        for (YearMonth month = YearMonth.now(); !month.isAfter(last); month = month.plusMonths(1)) {
+            LocalDate bound = month.plusMonths(1).atDay(1);
+            if (!bound.isAfter(highestBound)) {
+                continue;
+            }
+            String name = month.format(PARTITION_NAME);
+            jdbcTemplate.execute("ALTER TABLE notifications REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                    "PARTITION " + name + " VALUES LESS THAN ('" + bound + "'), " +
+                    "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            highestBound = bound;
+            log.info("Created notifications partition {} (< {})", name, bound);
+        }
+    }
+
+    private long dropExpired(List<Partition> partitions) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.longestRetention());
+        long dropped = 0;
+        for (Partition partition : partitions) {
+            if (partition.upperBound() == null || partition.upperBound().atStartOfDay().isAfter(cutoff)) {
+                continue;
+            }
+            // Unread rows vanish with the partition. DROP PARTITION commits implicitly, so no lock
+            // is held across it: a mark-as-read in between has already adjusted the counter, and
+            // subtracting a count read before the drop would take it off twice. The owners'
+            // counters are recounted once the rows are gone instead.
+            List<Long> owners = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT user_id FROM notifications PARTITION (" + partition.name() + ") " +
+                            "WHERE is_read = FALSE", Long.class);
+            jdbcTemplate.execute("ALTER TABLE notifications DROP PARTITION " + partition.name());
+            unreadCounter.recount(owners);
+            dropped += partition.rows();
+            log.info("Dropped notifications partition {} (< {}, ~{} rows)",
+                    partition.name(), partition.upperBound(), partition.rows());
+        }
+        return dropped;
+    }
+
+    private List<Partition> partitions() {
+        return jdbcTemplate.query(
+                "SELECT partition_name, partition_description, table_rows FROM information_schema.partitions " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'notifications' " +
+                        "AND partition_name IS NOT NULL ORDER BY partition_ordinal_position",
+                (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2)), rs.getLong(3)));
+    }
+
+    /**
+     * {@code '2026-11-01 00:00:00'} or {@code MAXVALUE} (null).
+     */
+    static LocalDate parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        return LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value);
+    }
+
+    private record Partition(String name, LocalDate upperBound, long rows) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.notification.entity.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes notifications older than their type's retention. Each chunk is selected through
+ * {@code idx_type_created} and deleted by primary key in its own short transaction, so the
+ * job never holds many row locks and runs alongside normal traffic.
+ *
+ * When partitioning is enabled, partitions past the longest retention are dropped first
+ * (see {@link NotificationPartitionManager}); the chunked delete then only handles types
+ * with a shorter retention. Coalescing groups whose window has passed are deleted as well;
+ * the next notification of such a group starts a new one either way.
+ */
+@Component
+@ConditionalOnProperty(value = "muscledia.notifications.retention.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(NotificationRetentionProperties.class)
+@Slf4j
+public class NotificationRetentionJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final ObjectProvider<NotificationPartitionManager> partitionManager;
+    private final NotificationRetentionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Duration coalescingWindow;
+    private final Timer runTimer;
+
+    public NotificationRetentionJob(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    UnreadNotificationCounter unreadCounter,
+                                    ObjectProvider<NotificationPartitionManager> partitionManager,
+                                    NotificationRetentionProperties properties,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${muscledia.notifications.coalescing.window:10m}") Duration coalescingWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCounter = unreadCounter;
+        this.partitionManager = partitionManager;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.coalescingWindow = coalescingWindow;
+
+        this.runTimer = Timer.builder("notifications.retention.duration")
+                .description("Time taken by one notification retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${muscledia.notifications.retention.interval:1h}",
+            initialDelayString = "${muscledia.notifications.retention.initial-delay:5m}")
+    public void purgeExpired() {
+        long start = System.nanoTime();
+        long purged = 0;
+        try {
+            NotificationPartitionManager partitions = partitionManager.getIfAvailable();
+            if (partitions != null) {
+                long dropped = partitions.maintain();
+                purgedCounter("partition").increment(dropped);
+                purged += dropped;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (NotificationType type : NotificationType.values()) {
+                purged += purgeType(type, now.minus(properties.retentionOf(type)));
+            }
+            purgeClosedGroups(now.minus(coalescingWindow));
+        } catch (Exception e) {
+            // The next run continues from whatever is left
+            log.error("Notification retention run failed: {}", e.getMessage(), e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            if (purged > 0) {
+                log.info("Notification retention purged {} notifications in {} ms",
+                        purged, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+
+    long purgeType(NotificationType type, LocalDateTime cutoff) {
+        Counter counter = purgedCounter(type.name());
+        long total = 0;
+        int deleted;
+        do {
+            Integer chunk = transactionTemplate.execute(tx -> deleteChunk(type, cutoff));
+            deleted = chunk != null ? chunk : 0;
+            counter.increment(deleted);
+            total += deleted;
+        } while (deleted == properties.getChunkSize());
+        return total;
+    }
+
+    private void purgeClosedGroups(LocalDateTime startedBefore) {
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM notification_groups WHERE started_at < ? LIMIT "
+                    + properties.getChunkSize(), startedBefore);
+        } while (deleted == properties.getChunkSize());
+    }
+
+    private int deleteChunk(NotificationType type, LocalDateTime cutoff) {
+        // Locked so a concurrent mark-as-read cannot change is_read between here and the
+        // delete, which would apply that change to the unread counter twice
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT notification_id, user_id, CASE WHEN is_read THEN 0 ELSE 1 END AS unread FROM notifications " +
+                        "WHERE type = ? AND created_at < ? ORDER BY created_at LIMIT " + properties.getChunkSize() +
+                        " FOR UPDATE",
+                type.name(), cutoff);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> ids = rows.stream().map(row -> row.get("notification_id")).toList();
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM notifications WHERE notification_id IN (" +
+                        String.join(",", Collections.nCopies(ids.size(), "?")) + ")",
+                ids.toArray());
+
+        Map<Long, Long> unreadByUser = rows.stream()
+                .collect(Collectors.groupingBy(row -> ((Number) row.get("user_id")).longValue(),
+                        Collectors.summingLong(row -> ((Number) row.get("unread")).longValue())));
+        unreadByUser.forEach((userId, unread) -> unreadCounter.adjust(userId, -unread));
+        return deleted;
+    }
+
+    private Counter purgedCounter(String source) {
+        return Counter.builder("notifications.retention.purged")
+                .description("Notifications removed by the retention job")
+                .tag("type", source)
+                .register(meterRegistry);
+    }
+}
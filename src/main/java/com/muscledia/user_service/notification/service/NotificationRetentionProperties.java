@@ -0,0 +1,63 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.notification.entity.NotificationType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * How long notifications are kept, per {@link NotificationType}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "muscledia.notifications.retention")
+public class NotificationRetentionProperties {
+
+    private boolean enabled = true;
+
+    /** Retention for types not listed in {@code by-type} */
+    private Duration defaultRetention = Duration.ofDays(180);
+
+    private Map<NotificationType, Duration> byType = new EnumMap<>(NotificationType.class);
+
+    /** Rows removed per DELETE statement */
+    private int chunkSize = 1000;
+
+    private Partitioning partitioning = new Partitioning();
+
+    public Duration retentionOf(NotificationType type) {
+        return byType.getOrDefault(type, defaultRetention);
+    }
+
+    /**
+     * The longest retention of any type: a time range older than this holds nothing to keep.
+     */
+    public Duration longestRetention() {
+        Duration longest = defaultRetention;
+        for (NotificationType type : NotificationType.values()) {
+            Duration retention = retentionOf(type);
+            if (retention.compareTo(longest) > 0) {
+                longest = retention;
+            }
+        }
+        return longest;
+    }
+
+    @Getter
+    @Setter
+    public static class Partitioning {
+
+        /**
+         * Maintain monthly partitions on {@code created_at}. The table must first be converted
+         * with {@code db/notifications-partitioning.sql}.
+         */
+        private boolean enabled = false;
+
+        /** Empty partitions kept ready ahead of the current month */
+        private int monthsAhead = 3;
+    }
+}
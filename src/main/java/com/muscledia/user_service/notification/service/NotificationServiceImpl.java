@@ -1,15 +1,27 @@
 package com.muscledia.user_service.notification.service;
 
+import com.muscledia.user_service.notification.dto.NotificationCursor;
+import com.muscledia.user_service.notification.dto.NotificationPage;
 import com.muscledia.user_service.notification.entity.Notification;
 import com.muscledia.user_service.notification.entity.NotificationType;
 import com.muscledia.user_service.notification.repo.NotificationRepository;
 import com.muscledia.user_service.user.entity.User;
 import com.muscledia.user_service.user.services.IUserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -17,18 +29,80 @@ public class NotificationServiceImpl implements INotificationService {
 
     private final NotificationRepository notificationRepository;
     private final IUserService userService;
+    private final UnreadNotificationCounter unreadCounter;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${muscledia.notifications.feed.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${muscledia.notifications.coalescing.window:10m}")
+    private Duration coalescingWindow;
 
     @Override
     @Transactional
     public Notification createNotification(Long userId, NotificationType type, String message) {
+        return createNotification(userId, type, message, null);
+    }
+
+    @Override
+    @Transactional
+    public Notification createNotification(Long userId, NotificationType type, String message, String groupKey) {
         User user = userService.getUserById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        if (groupKey == null || coalescingWindow.isZero()) {
+            return insert(user, type, message, groupKey);
+        }
 
+        // Creates the group row or locks the existing one, so concurrent notifications of the
+        // group run one after the other and the first one alone inserts
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO notification_groups (user_id, type, group_key, started_at) VALUES (?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE started_at = started_at", userId, type.name(), groupKey, now);
+        OpenGroup group = jdbcTemplate.queryForObject("SELECT notification_id, started_at FROM notification_groups " +
+                        "WHERE user_id = ? AND type = ? AND group_key = ? FOR UPDATE",
+                (rs, rowNum) -> new OpenGroup(rs.getObject("notification_id", Long.class),
+                        rs.getObject("started_at", LocalDateTime.class)),
+                userId, type.name(), groupKey);
+
+        if (group.notificationId() != null && !group.startedAt().isBefore(now.minus(coalescingWindow))) {
+            Optional<Notification> open = notificationRepository.findUnreadForUpdate(group.notificationId());
+            if (open.isPresent()) {
+                return coalesce(open.get(), message, now);
+            }
+        }
+
+        Notification saved = insert(user, type, message, groupKey);
+        jdbcTemplate.update("UPDATE notification_groups SET notification_id = ?, started_at = ? " +
+                        "WHERE user_id = ? AND type = ? AND group_key = ?",
+                saved.getNotificationId(), saved.getCreatedAt(), userId, type.name(), groupKey);
+        return saved;
+    }
+
+    private Notification insert(User user, NotificationType type, String message, String groupKey) {
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setType(type);
         notification.setMessage(message);
-        return notificationRepository.save(notification);
+        notification.setGroupKey(groupKey);
+        Notification saved = notificationRepository.save(notification);
+        unreadCounter.adjust(user.getUserId(), 1);
+        return saved;
+    }
+
+    /**
+     * Fold a repeat into the group's unread row: one UPDATE instead of a new row in every
+     * index, and the unread count stays the same. The row moves to the top of the feed
+     * and is pushed to open streams again; the group's window stays where it started.
+     */
+    private Notification coalesce(Notification existing, String message, LocalDateTime now) {
+        existing.setOccurrenceCount(existing.getOccurrenceCount() + 1);
+        existing.setMessage(message);
+        existing.setCreatedAt(now);
+        Notification saved = notificationRepository.save(existing);
+        meterRegistry.counter("notifications.coalesced", "type", existing.getType().name()).increment();
+        unreadCounter.touch(existing.getUser().getUserId());
+        return saved;
     }
 
     @Override
@@ -38,38 +112,87 @@ public class NotificationServiceImpl implements INotificationService {
     }
 
     @Override
-    public List<Notification> getUserNotifications(Long userId) {
-        return notificationRepository.findByUser_UserIdOrderByCreatedAtDesc(userId);
+    @Transactional(readOnly = true)
+    public NotificationPage getUserNotifications(Long userId, NotificationCursor before, int limit) {
+        int pageSize = clampPageSize(limit);
+        // One extra row tells whether another page exists without a COUNT
+        PageRequest window = PageRequest.ofSize(pageSize + 1);
+        List<Notification> rows = before == null
+                ? notificationRepository.findFeedFirstPage(userId, window)
+                : notificationRepository.findFeedPageBefore(userId, before.getCreatedAt(),
+                        before.getNotificationId(), window);
+        return toPage(rows, pageSize);
     }
 
     @Override
-    public List<Notification> getUnreadUserNotifications(Long userId) {
-        return notificationRepository.findByUser_UserIdAndIsReadOrderByCreatedAtDesc(userId, false);
+    @Transactional(readOnly = true)
+    public NotificationPage getUnreadUserNotifications(Long userId, NotificationCursor before, int limit) {
+        int pageSize = clampPageSize(limit);
+        PageRequest window = PageRequest.ofSize(pageSize + 1);
+        List<Notification> rows = before == null
+                ? notificationRepository.findFeedFirstPageByIsRead(userId, false, window)
+                : notificationRepository.findFeedPageBeforeByIsRead(userId, false, before.getCreatedAt(),
+                        before.getNotificationId(), window);
+        return toPage(rows, pageSize);
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private NotificationPage toPage(List<Notification> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? NotificationCursor.of(items.getLast()).toString() : null;
+        return new NotificationPage(items, nextCursor, hasMore);
     }
 
     @Override
     public long countUnreadNotifications(Long userId) {
-        return notificationRepository.countByUser_UserIdAndIsReadIsFalse(userId);
+        return unreadCounter.get(userId);
     }
 
     @Override
     @Transactional
     public Notification markNotificationAsRead(Long notificationId) {
-        Notification notification = getNotificationById(notificationId);
-        notification.setIsRead(true);
-        return notificationRepository.save(notification);
+        Long userId = getNotificationById(notificationId).getUser().getUserId();
+        // Conditional UPDATE: of two concurrent marks (or a mark and a mark-all) only one
+        // flips the row and counts it, and a coalesce folded in meanwhile is not overwritten
+        int updated = notificationRepository.markAsRead(userId, Set.of(notificationId));
+        unreadCounter.adjust(userId, -updated);
+        return getNotificationById(notificationId);
     }
 
     @Override
     @Transactional
-    public void markAllUserNotificationsAsRead(Long userId) {
-        List<Notification> unreadNotifications = getUserNotifications(userId);
-        unreadNotifications.forEach(notification -> notification.setIsRead(true));
-        notificationRepository.saveAll(unreadNotifications);
+    public int markAllUserNotificationsAsRead(Long userId) {
+        int updated = notificationRepository.markAllAsRead(userId);
+        unreadCounter.adjust(userId, -updated);
+        return updated;
     }
 
     @Override
+    @Transactional
+    public int markUserNotificationsAsRead(Long userId, Collection<Long> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return 0;
+        }
+        int updated = notificationRepository.markAsRead(userId, new HashSet<>(notificationIds));
+        unreadCounter.adjust(userId, -updated);
+        return updated;
+    }
+
+    @Override
+    @Transactional
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.findForUpdate(notificationId).ifPresent(notification -> {
+            notificationRepository.delete(notification);
+            if (!Boolean.TRUE.equals(notification.getIsRead())) {
+                unreadCounter.adjust(notification.getUser().getUserId(), -1);
+            }
+        });
+    }
+
+    private record OpenGroup(Long notificationId, LocalDateTime startedAt) {
     }
 }
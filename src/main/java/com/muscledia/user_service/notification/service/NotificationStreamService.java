@@ -0,0 +1,371 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.notification.dto.NotificationCursor;
+import com.muscledia.user_service.notification.dto.NotificationDTO;
+import com.muscledia.user_service.notification.entity.Notification;
+import com.muscledia.user_service.notification.repo.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes new notifications and unread-count changes to clients over Server-Sent Events.
+ *
+ * A connection is an async-servlet {@link SseEmitter}: once connected it holds no request
+ * thread. Outgoing events go through a bounded per-connection queue drained by a virtual
+ * thread, so a slow client never blocks the thread that produced the event. A client that
+ * falls {@code queue-capacity} events behind is disconnected; it reconnects with
+ * {@code Last-Event-ID} and is replayed from the database.
+ *
+ * Changes are picked up from {@link UnreadCountChangedEvent}, which fires for local writes
+ * and for invalidations received from other nodes alike: each affected connection then
+ * reads the notifications newer than the last one it sent (a keyset range scan). A row is
+ * visible only once its transaction commits, possibly after a newer row was sent, so the
+ * scan starts {@code late-commit-window} before the cursor and skips the IDs it already
+ * sent. For an {@link UnreadCountsChangedEvent} covering many users, the affected
+ * connections catch up at random times within {@code bulk-spread} rather than all querying
+ * at once; an invalidation of every counter only re-sends the unread counts, spread the same way.
+ */
+@Service
+@Slf4j
+public class NotificationStreamService {
+
+    static final String NOTIFICATION_EVENT = "notification";
+    static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    private final NotificationRepository notificationRepository;
+    private final UnreadNotificationCounter unreadCounter;
+    private final Duration connectionTimeout;
+    private final int queueCapacity;
+    private final int replayLimit;
+    private final int maxConnectionsPerUser;
+    private final Duration bulkSpread;
+    private final Duration lateCommitWindow;
+
+    private final Map<Long, Queue<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-stream-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter droppedConnections;
+
+    public NotificationStreamService(NotificationRepository notificationRepository,
+                                     UnreadNotificationCounter unreadCounter,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${muscledia.notifications.stream.timeout:30m}") Duration connectionTimeout,
+                                     @Value("${muscledia.notifications.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                     @Value("${muscledia.notifications.stream.queue-capacity:256}") int queueCapacity,
+                                     @Value("${muscledia.notifications.stream.replay-limit:100}") int replayLimit,
+                                     @Value("${muscledia.notifications.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+                                     @Value("${muscledia.notifications.stream.bulk-spread:5s}") Duration bulkSpread,
+                                     @Value("${muscledia.notifications.stream.late-commit-window:5m}") Duration lateCommitWindow) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounter = unreadCounter;
+        this.connectionTimeout = connectionTimeout;
+        this.queueCapacity = queueCapacity;
+        this.replayLimit = replayLimit;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.bulkSpread = bulkSpread;
+        this.lateCommitWindow = lateCommitWindow;
+
+        Gauge.builder("notifications.stream.connections", openConnections, AtomicInteger::get)
+                .description("Open notification SSE connections")
+                .register(meterRegistry);
+        this.droppedConnections = Counter.builder("notifications.stream.dropped")
+                .description("SSE connections closed because the client could not keep up")
+                .register(meterRegistry);
+
+        long interval = heartbeatInterval.toMillis();
+        scheduler.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a stream for the user. With {@code lastEventId} (the id of the last notification
+     * the client received) everything newer is replayed first; otherwise only notifications
+     * created from now on are sent. The current unread count is always sent on connect.
+     */
+    public SseEmitter connect(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(connectionTimeout.toMillis());
+        Connection connection = new Connection(userId, emitter, new ArrayBlockingQueue<>(queueCapacity),
+                resumeCursor(userId, lastEventId));
+
+        emitter.onCompletion(() -> close(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(error -> close(connection));
+
+        Queue<Connection> userConnections = connections.compute(userId, (id, existing) -> {
+            Queue<Connection> queue = existing != null ? existing : new ConcurrentLinkedQueue<>();
+            queue.add(connection);
+            return queue;
+        });
+        openConnections.incrementAndGet();
+        while (userConnections.size() > maxConnectionsPerUser) {
+            Connection oldest = userConnections.peek();
+            if (oldest == null) {
+                break;
+            }
+            oldest.emitter.complete();
+            close(oldest);
+        }
+
+        senders.execute(() -> catchUp(connection));
+        return emitter;
+    }
+
+    @EventListener
+    public void onUnreadCountChanged(UnreadCountChangedEvent event) {
+        if (event.userId() == null) {
+            // Every counter was dropped, but no notification was added: only the counts may differ
+            connections.values().forEach(userConnections -> userConnections.forEach(connection ->
+                    spread(() -> sendUnreadCount(connection))));
+            return;
+        }
+        Queue<Connection> userConnections = connections.get(event.userId());
+        if (userConnections != null) {
+            userConnections.forEach(this::scheduleCatchUp);
+        }
+    }
+
+    @EventListener
+    public void onUnreadCountsChanged(UnreadCountsChangedEvent event) {
+        connections.forEach((userId, userConnections) -> {
+            if (event.contains(userId)) {
+                userConnections.forEach(connection -> spread(() -> catchUp(connection)));
+            }
+        });
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> {
+            connection.emitter.complete();
+            close(connection);
+        }));
+        senders.shutdownNow();
+    }
+
+    private NotificationCursor resumeCursor(Long userId, String lastEventId) {
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                Long notificationId = Long.valueOf(lastEventId.trim());
+                var createdAt = notificationRepository.findCreatedAt(userId, notificationId);
+                if (createdAt.isPresent()) {
+                    return new NotificationCursor(createdAt.get(), notificationId);
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed Last-Event-ID '{}' for user {}", lastEventId, userId);
+            }
+        }
+        // No usable resume point: start after the newest existing notification
+        List<Notification> newest = notificationRepository.findFeedFirstPage(userId, PageRequest.ofSize(1));
+        return newest.isEmpty() ? null : NotificationCursor.of(newest.getFirst());
+    }
+
+    private void scheduleCatchUp(Connection connection) {
+        senders.execute(() -> catchUp(connection));
+    }
+
+    /**
+     * Run {@code task} on a sender at a random time within {@code bulk-spread}.
+     */
+    private void spread(Runnable task) {
+        long spreadMillis = bulkSpread.toMillis();
+        if (spreadMillis <= 0) {
+            senders.execute(task);
+            return;
+        }
+        scheduler.schedule(() -> senders.execute(task),
+                ThreadLocalRandom.current().nextLong(spreadMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue every notification newer than the connection's cursor, or committed late within
+     * {@code late-commit-window} before it, then the unread count. Serialized per connection
+     * so events are never sent twice or out of order.
+     */
+    private void catchUp(Connection connection) {
+        connection.catchUpLock.lock();
+        try {
+            NotificationCursor scan = scanStart(connection);
+            boolean more = true;
+            while (more && !connection.closed.get()) {
+                List<Notification> rows = scan == null
+                        ? notificationRepository.findFeedFirstPage(connection.userId, PageRequest.ofSize(replayLimit))
+                        .reversed()
+                        : notificationRepository.findFeedPageAfter(connection.userId, scan.getCreatedAt(),
+                        scan.getNotificationId(), PageRequest.ofSize(replayLimit));
+                for (Notification notification : rows) {
+                    scan = NotificationCursor.of(notification);
+                    // A coalesced notification keeps its id but moves to a new created_at: send it again
+                    if (notification.getCreatedAt().equals(
+                            connection.recentlySent.get(notification.getNotificationId()))) {
+                        continue;
+                    }
+                    if (!enqueue(connection, SseEmitter.event()
+                            .id(notification.getNotificationId().toString())
+                            .name(NOTIFICATION_EVENT)
+                            .data(NotificationDTO.from(notification), MediaType.APPLICATION_JSON))) {
+                        return;
+                    }
+                    connection.recentlySent.put(notification.getNotificationId(), notification.getCreatedAt());
+                    if (connection.cursor == null || scan.isAfter(connection.cursor)) {
+                        connection.cursor = scan;
+                    }
+                }
+                more = rows.size() == replayLimit;
+            }
+            if (connection.cursor != null) {
+                LocalDateTime forgetBefore = connection.cursor.getCreatedAt().minus(lateCommitWindow);
+                connection.recentlySent.values().removeIf(createdAt -> createdAt.isBefore(forgetBefore));
+            }
+
+            sendUnreadCount(connection);
+        } catch (Exception e) {
+            log.warn("Notification stream catch-up failed for user {}: {}", connection.userId, e.getMessage());
+        } finally {
+            connection.catchUpLock.unlock();
+        }
+    }
+
+    /**
+     * Where the catch-up scan starts: {@code late-commit-window} before the cursor, but never
+     * before the point the client connected or resumed at. Null for the newest page.
+     */
+    private NotificationCursor scanStart(Connection connection) {
+        if (connection.cursor == null) {
+            return null;
+        }
+        NotificationCursor start = new NotificationCursor(
+                connection.cursor.getCreatedAt().minus(lateCommitWindow), 0L);
+        return connection.floor != null && connection.floor.isAfter(start) ? connection.floor : start;
+    }
+
+    private void sendUnreadCount(Connection connection) {
+        connection.catchUpLock.lock();
+        try {
+            enqueue(connection, SseEmitter.event()
+                    .name(UNREAD_COUNT_EVENT)
+                    .data(Map.of("unreadCount", unreadCounter.get(connection.userId)), MediaType.APPLICATION_JSON));
+        } catch (Exception e) {
+            log.warn("Notification stream unread count failed for user {}: {}", connection.userId, e.getMessage());
+        } finally {
+            connection.catchUpLock.unlock();
+        }
+    }
+
+    private void sendHeartbeats() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection ->
+                enqueue(connection, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /**
+     * @return false if the connection is closed or was just dropped for being too slow
+     */
+    private boolean enqueue(Connection connection, SseEmitter.SseEventBuilder event) {
+        if (connection.closed.get()) {
+            return false;
+        }
+        if (!connection.queue.offer(event)) {
+            droppedConnections.increment();
+            log.debug("Dropping notification stream of user {}: client is {} events behind",
+                    connection.userId, queueCapacity);
+            connection.emitter.complete();
+            close(connection);
+            return false;
+        }
+        if (connection.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(connection));
+        }
+        return true;
+    }
+
+    private void drain(Connection connection) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!connection.closed.get() && (event = connection.queue.poll()) != null) {
+                connection.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports completion separately
+            close(connection);
+        } finally {
+            connection.draining.set(false);
+            if (!connection.closed.get() && !connection.queue.isEmpty()
+                    && connection.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(connection));
+            }
+        }
+    }
+
+    private void close(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connection.queue.clear();
+        openConnections.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private static final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final ReentrantLock catchUpLock = new ReentrantLock();
+        // Where the stream started; older notifications are never sent
+        private final NotificationCursor floor;
+        private volatile NotificationCursor cursor;
+        // IDs sent within late-commit-window of the cursor, with the created_at they were sent at;
+        // guarded by catchUpLock
+        private final Map<Long, LocalDateTime> recentlySent = new HashMap<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(Long userId, SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue,
+                           NotificationCursor floor) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+            this.floor = floor;
+            this.cursor = floor;
+        }
+    }
+}
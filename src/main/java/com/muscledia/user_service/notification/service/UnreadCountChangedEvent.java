@@ -0,0 +1,8 @@
+package com.muscledia.user_service.notification.service;
+
+/**
+ * Published (in-process) after a user's unread count changed on this or another node.
+ * A null userId means every counter was invalidated.
+ */
+public record UnreadCountChangedEvent(Long userId) {
+}
@@ -0,0 +1,12 @@
+package com.muscledia.user_service.notification.service;
+
+/**
+ * Published (in-process) after the unread counts of users in {@code (fromUserId, toUserId]}
+ * may have changed together, on this or another node, e.g. by a broadcast chunk.
+ */
+public record UnreadCountsChangedEvent(long fromUserId, long toUserId) {
+
+    public boolean contains(long userId) {
+        return userId > fromUserId && userId <= toUserId;
+    }
+}
@@ -0,0 +1,216 @@
+package com.muscledia.user_service.notification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muscledia.user_service.config.cache.CacheInvalidationHandler;
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.notification.repo.NotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread notification counts held in memory, so the unread badge endpoint is a
+ * hash lookup instead of an index range count.
+ *
+ * Counters are loaded lazily on a miss and adjusted in place once the transaction that
+ * changed the notifications commits. Other nodes are told to drop their copy and reload it.
+ * Bulk changes drop the counters of a user ID range instead (see {@link #invalidateRange}
+ * and {@link #recount}).
+ * Entries expire after {@code max-age}, which bounds any drift.
+ */
+@Component
+@Slf4j
+public class UnreadNotificationCounter implements CacheInvalidationHandler {
+
+    public static final String REGION = "notification-unread";
+
+    // Region key of a user ID range: "<fromUserId>..<toUserId>"
+    private static final String RANGE_SEPARATOR = "..";
+
+    // Stored counters deleted per statement by recount
+    private static final int RECOUNT_CHUNK_SIZE = 1000;
+
+    private final NotificationRepository notificationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean persisted;
+    private final Cache<Long, AtomicLong> counters;
+
+    public UnreadNotificationCounter(NotificationRepository notificationRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     CacheInvalidator cacheInvalidator,
+                                     ApplicationEventPublisher eventPublisher,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${muscledia.notifications.unread-counter.max-size:100000}") long maxSize,
+                                     @Value("${muscledia.notifications.unread-counter.max-age:5m}") Duration maxAge,
+                                     @Value("${muscledia.notifications.unread-counter.persisted:false}") boolean persisted) {
+        this.notificationRepository = notificationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.persisted = persisted;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counters, "notificationUnreadCounters");
+    }
+
+    public long get(Long userId) {
+        return counters.get(userId, this::load).get();
+    }
+
+    /**
+     * Record a change in the user's unread count. Must be called inside the transaction
+     * that made the change; the in-memory counter moves only if it commits.
+     */
+    public void adjust(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (persisted) {
+            adjustPersisted(userId, delta);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjustLocal(userId, delta);
+                }
+            });
+        } else {
+            adjustLocal(userId, delta);
+        }
+        cacheInvalidator.invalidateOtherNodes(REGION, userId);
+    }
+
+    /**
+     * A notification changed without changing the unread count (e.g. it was coalesced):
+     * tell this node's and the other nodes' listeners once the transaction commits.
+     */
+    public void touch(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(new UnreadCountChangedEvent(userId));
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(new UnreadCountChangedEvent(userId));
+        }
+        cacheInvalidator.invalidateOtherNodes(REGION, userId);
+    }
+
+    /**
+     * Users in {@code (fromUserId, toUserId]} may have unread notifications that were not
+     * counted one by one: their counters are dropped on every node (after commit) and
+     * reloaded on next use. Counters of other users stay cached.
+     */
+    public void invalidateRange(long fromUserId, long toUserId) {
+        if (toUserId > fromUserId) {
+            cacheInvalidator.invalidate(REGION, fromUserId + RANGE_SEPARATOR + toUserId);
+        }
+    }
+
+    /**
+     * Unread notifications of these users went away without being counted one by one, and
+     * possibly concurrently with changes that were: their stored counters are deleted, to be
+     * recounted from the notifications table on next use, and the cached ones are dropped on
+     * every node. Call after the change has committed.
+     */
+    public void recount(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (persisted) {
+            for (int from = 0; from < userIds.size(); from += RECOUNT_CHUNK_SIZE) {
+                List<Long> chunk = userIds.subList(from, Math.min(userIds.size(), from + RECOUNT_CHUNK_SIZE));
+                jdbcTemplate.update("DELETE FROM notification_counters WHERE user_id IN (" +
+                        String.join(",", Collections.nCopies(chunk.size(), "?")) + ")", chunk.toArray());
+            }
+        }
+        long min = userIds.stream().mapToLong(Long::longValue).min().getAsLong();
+        long max = userIds.stream().mapToLong(Long::longValue).max().getAsLong();
+        invalidateRange(min - 1, max);
+    }
+
+    public boolean isPersisted() {
+        return persisted;
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        int separator = key != null ? key.indexOf(RANGE_SEPARATOR) : -1;
+        if (separator >= 0) {
+            UnreadCountsChangedEvent range = new UnreadCountsChangedEvent(Long.parseLong(key.substring(0, separator)),
+                    Long.parseLong(key.substring(separator + RANGE_SEPARATOR.length())));
+            counters.asMap().keySet().removeIf(range::contains);
+            eventPublisher.publishEvent(range);
+            return;
+        }
+        Long userId = key != null ? Long.valueOf(key) : null;
+        if (userId == null) {
+            counters.invalidateAll();
+        } else {
+            counters.invalidate(userId);
+        }
+        eventPublisher.publishEvent(new UnreadCountChangedEvent(userId));
+    }
+
+    private void adjustLocal(Long userId, long delta) {
+        // Waits for an in-flight load of the same user, so the delta is never applied to
+        // a count read before this change and then lost. Absent counters stay absent.
+        counters.asMap().computeIfPresent(userId, (id, count) -> {
+            count.updateAndGet(value -> Math.max(0, value + delta));
+            return count;
+        });
+        eventPublisher.publishEvent(new UnreadCountChangedEvent(userId));
+    }
+
+    private AtomicLong load(Long userId) {
+        if (persisted) {
+            List<Long> stored = jdbcTemplate.queryForList(
+                    "SELECT unread_count FROM notification_counters WHERE user_id = ?", Long.class, userId);
+            if (!stored.isEmpty()) {
+                return new AtomicLong(stored.getFirst());
+            }
+        }
+        return new AtomicLong(notificationRepository.countByUser_UserIdAndIsReadIsFalse(userId));
+    }
+
+    private void adjustPersisted(Long userId, long delta) {
+        int updated = jdbcTemplate.update(
+                "UPDATE notification_counters SET unread_count = GREATEST(0, unread_count + ?) WHERE user_id = ?",
+                delta, userId);
+        if (updated == 0) {
+            // First change for this user: seed from the notifications table, which already
+            // includes the change made earlier in this transaction
+            jdbcTemplate.update(
+                    "INSERT INTO notification_counters (user_id, unread_count) " +
+                            "SELECT ?, COUNT(*) FROM notifications WHERE user_id = ? AND is_read = FALSE " +
+                            "ON DUPLICATE KEY UPDATE unread_count = GREATEST(0, unread_count + ?)",
+                    userId, userId, delta);
+        }
+    }
+}
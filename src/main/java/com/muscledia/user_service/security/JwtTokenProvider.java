@@ -1,6 +1,7 @@
 package com.muscledia.user_service.security;
 
 import com.muscledia.user_service.user.entity.User;
+import com.muscledia.user_service.user.services.RoleService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -27,10 +28,12 @@ public class JwtTokenProvider {
     private long validityInMilliseconds;
 
     private final UserDetailsService userDetailsService;
+    private final RoleService roleService;
     private SecretKey key;
 
-    public JwtTokenProvider(UserDetailsService userDetailsService) {
+    public JwtTokenProvider(UserDetailsService userDetailsService, RoleService roleService) {
         this.userDetailsService = userDetailsService;
+        this.roleService = roleService;
     }
 
     @PostConstruct
@@ -48,8 +51,8 @@ public class JwtTokenProvider {
 
         // CRITICAL FIX: Include roles without "ROLE_" prefix in JWT
         // The authorities will be prefixed with "ROLE_" during authentication
-        List<String> roles = user.getRoles().stream()
-                .map(role -> role.getName().name().replace("ROLE_", "")) // Remove ROLE_ prefix if present
+        List<String> roles = roleService.getRoles(user).stream()
+                .map(role -> role.name().replace("ROLE_", "")) // Remove ROLE_ prefix if present
                 .collect(Collectors.toList());
         claims.put("roles", roles);
 
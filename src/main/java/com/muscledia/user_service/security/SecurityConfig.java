@@ -37,6 +37,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         // ACTUATOR ENDPOINTS - Must come FIRST
+                        .requestMatchers("/actuator/pinning").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers("/actuator/info").permitAll()
@@ -51,6 +52,7 @@ public class SecurityConfig {
                         // ADMIN-ONLY ENDPOINTS (explicit protection)
                         .requestMatchers("/api/users/*/promote", "/api/users/*/demote").hasRole("ADMIN")
                         .requestMatchers("/api/users/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
                         // PROTECTED USER ENDPOINTS
                         .requestMatchers("/api/users/**").authenticated()
@@ -58,6 +60,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/avatars/**").authenticated()
                         .requestMatchers("/api/user-champions/**").authenticated()
                         .requestMatchers("/api/notifications/**").authenticated()
+                        .requestMatchers("/api/leaderboard/**").authenticated()
                         .anyRequest().authenticated())
                 .addFilterBefore(new JwtTokenFilter(jwtTokenProvider), UsernamePasswordAuthenticationFilter.class);
 
@@ -5,6 +5,7 @@ import com.muscledia.user_service.security.dto.AuthenticationRequest;
 import com.muscledia.user_service.security.dto.AuthenticationResponse;
 import com.muscledia.user_service.user.entity.User;
 import com.muscledia.user_service.user.services.IUserService;
+import com.muscledia.user_service.user.services.RoleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -30,13 +31,16 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final IUserService userService;
+    private final RoleService roleService;
 
     public AuthController(AuthenticationManager authenticationManager,
             JwtTokenProvider jwtTokenProvider,
-            IUserService userService) {
+            IUserService userService,
+            RoleService roleService) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.userService = userService;
+        this.roleService = roleService;
     }
 
     @Operation(summary = "Authenticate user", description = "Authenticates a user with username and password and returns a JWT token")
@@ -58,8 +62,8 @@ public class AuthController {
         String token = jwtTokenProvider.createToken(user);
 
         // Extract roles for the response
-        List<String> roles = user.getRoles().stream()
-                .map(role -> "ROLE_" + role.getName().name().replace("ROLE_", "")) // Ensure consistent format
+        List<String> roles = roleService.getRoles(user).stream()
+                .map(role -> "ROLE_" + role.name().replace("ROLE_", "")) // Ensure consistent format
                 .collect(Collectors.toList());
 
         // Create enhanced response with roles
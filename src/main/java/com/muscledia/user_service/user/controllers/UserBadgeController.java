@@ -1,6 +1,7 @@
 package com.muscledia.user_service.user.controllers;
 
-import com.muscledia.user_service.exception.BadgeAlreadyAwardedException;
+import com.muscledia.user_service.user.dto.BadgeProgress;
+import com.muscledia.user_service.user.dto.BadgeProgressUpdateRequest;
 import com.muscledia.user_service.user.entity.UserBadge;
 import com.muscledia.user_service.exception.ResourceNotFoundException;
 import com.muscledia.user_service.user.services.IUserBadgeService;
@@ -11,6 +12,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -63,25 +65,20 @@ public class UserBadgeController {
         }
 
         @IsAdmin
-        @Operation(summary = "Award badge", description = "Awards a badge to a user")
+        @Operation(summary = "Award badge", description = "Awards a badge to a user. Idempotent: awarding a badge the user already has returns 200")
         @ApiResponses(value = {
                 @ApiResponse(responseCode = "201", description = "Badge awarded successfully"),
+                @ApiResponse(responseCode = "200", description = "Badge was already awarded"),
                 @ApiResponse(responseCode = "404", description = "User not found"),
-                @ApiResponse(responseCode = "409", description = "Badge already awarded"),
                 @ApiResponse(responseCode = "403", description = "Forbidden - Requires ADMIN role")
         })
         @PostMapping("/{badgeId}")
-        public ResponseEntity<?> awardBadge(
+        public ResponseEntity<Void> awardBadge(
                 @Parameter(description = "ID of the user") @PathVariable Long userId,
                 @Parameter(description = "ID of the badge to award") @PathVariable Long badgeId) {
 
-                try {
-                        userBadgeService.awardBadge(userId, badgeId);
-                        return ResponseEntity.status(HttpStatus.CREATED).build();
-                } catch (BadgeAlreadyAwardedException e) {
-                        return ResponseEntity.status(HttpStatus.CONFLICT)
-                                .body(Map.of("error", e.getMessage()));
-                }
+                boolean awarded = userBadgeService.awardBadge(userId, badgeId);
+                return ResponseEntity.status(awarded ? HttpStatus.CREATED : HttpStatus.OK).build();
         }
 
         @IsAdmin
@@ -112,6 +109,21 @@ public class UserBadgeController {
                 }
         }
 
+        @IsAdmin
+        @Operation(summary = "Update progress of several badges", description = "Adds deltas to or sets the progress of several of a user's badges in one atomic batch, and returns the resulting values")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Progress updated; returns the new value of each badge"),
+                @ApiResponse(responseCode = "400", description = "Invalid update"),
+                @ApiResponse(responseCode = "404", description = "A badge is not awarded to the user; nothing was changed"),
+                @ApiResponse(responseCode = "403", description = "Forbidden - Requires ADMIN role")
+        })
+        @PatchMapping("/progress")
+        public ResponseEntity<List<BadgeProgress>> updateBadgesProgress(
+                @Parameter(description = "ID of the user") @PathVariable Long userId,
+                @Valid @RequestBody BadgeProgressUpdateRequest request) {
+                return ResponseEntity.ok(userBadgeService.updateProgress(userId, request.getUpdates()));
+        }
+
         @IsAdmin
         @Operation(summary = "Save user badge", description = "Creates or updates a user badge")
         @ApiResponses(value = {
@@ -3,6 +3,7 @@ package com.muscledia.user_service.user.controllers;
 import com.muscledia.user_service.user.dto.DefeatChampionRequest;
 import com.muscledia.user_service.user.dto.StartBattleRequest;
 import com.muscledia.user_service.user.dto.UpdateExerciseCountRequest;
+import com.muscledia.user_service.user.dto.UpsertResult;
 import com.muscledia.user_service.user.entity.UserChampion;
 import com.muscledia.user_service.exception.ResourceNotFoundException;
 import com.muscledia.user_service.user.services.IUserChampionService;
@@ -62,27 +63,23 @@ public class UserChampionController {
         return ResponseEntity.ok(champion);
     }
 
-    @Operation(summary = "Start champion battle", description = "Initiates a battle with a champion")
+    @Operation(summary = "Start champion battle", description = "Initiates a battle with a champion. Idempotent: an existing battle is returned unchanged with 200")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Battle started successfully"),
+            @ApiResponse(responseCode = "200", description = "Battle already exists"),
             @ApiResponse(responseCode = "400", description = "Invalid request"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
     @PostMapping("/start")
-    public ResponseEntity<?> startBattle(@Valid @RequestBody StartBattleRequest startBattleRequest) {
-        try {
-            UserChampion startedBattle = userChampionService.startBattle(
-                    startBattleRequest.getUserId(),
-                    startBattleRequest.getChampionId());
+    public ResponseEntity<UserChampion> startBattle(@Valid @RequestBody StartBattleRequest startBattleRequest) {
+        UpsertResult<UserChampion> battle = userChampionService.startBattle(
+                startBattleRequest.getUserId(),
+                startBattleRequest.getChampionId());
 
-            return ResponseEntity.status(HttpStatus.CREATED).body(startedBattle);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of("error", e.getMessage()));
-        }
+        return ResponseEntity.status(battle.created() ? HttpStatus.CREATED : HttpStatus.OK).body(battle.value());
     }
 
-    @Operation(summary = "Update exercise count", description = "Updates the exercise count for a champion battle")
+    @Operation(summary = "Update exercise count", description = "Sets the exercise count for a champion battle, or adds a delta to it")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Exercise count updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request"),
@@ -91,6 +88,14 @@ public class UserChampionController {
     @PatchMapping("/progress")
     public ResponseEntity<?> updateExerciseCount(@Valid @RequestBody UpdateExerciseCountRequest updateRequest) {
         try {
+            if (updateRequest.getDelta() != null) {
+                userChampionService.addExerciseCount(
+                        updateRequest.getUserId(),
+                        updateRequest.getChampionId(),
+                        updateRequest.getDelta());
+                return ResponseEntity.noContent().build();
+            }
+
             if (updateRequest.getCount() < 0) {
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "Exercise count cannot be negative"));
@@ -1,11 +1,16 @@
 package com.muscledia.user_service.user.controllers;
 
 import com.muscledia.user_service.avatar.entity.Avatar;
+import com.muscledia.user_service.user.dto.AddExpRequest;
 import com.muscledia.user_service.user.dto.RegistrationRequest;
 import com.muscledia.user_service.user.dto.UserDataDTO;
+import com.muscledia.user_service.user.dto.UserExpResponse;
+import com.muscledia.user_service.user.dto.UserImportFormat;
+import com.muscledia.user_service.user.dto.UserImportReport;
 import com.muscledia.user_service.user.entity.User;
 import com.muscledia.user_service.exception.ResourceNotFoundException;
 import com.muscledia.user_service.exception.UsernameAlreadyExistsException;
+import com.muscledia.user_service.user.services.IUserImportService;
 import com.muscledia.user_service.user.services.IUserService;
 import com.muscledia.user_service.user.services.UserServiceImpl;
 import com.muscledia.user_service.security.annotation.IsAdmin;
@@ -16,6 +21,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
@@ -26,6 +32,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -35,11 +42,14 @@ import java.util.Map;
 public class UserController {
         private final IUserService userService;
         private final UserServiceImpl userServiceImpl;
+        private final IUserImportService userImportService;
 
         public UserController(@Qualifier("userServiceImpl") IUserService userService,
-                        UserServiceImpl userServiceImpl) {
+                        UserServiceImpl userServiceImpl,
+                        IUserImportService userImportService) {
                 this.userService = userService;
                 this.userServiceImpl = userServiceImpl;
+                this.userImportService = userImportService;
         }
 
 
@@ -376,6 +386,22 @@ public class UserController {
                 return ResponseEntity.ok(demotedUser);
         }
 
+        @IsAdmin
+        @Operation(summary = "Add exp", description = "Adds exp to a user's total (negative to subtract, never below 0) and moves the user on the XP leaderboard")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Exp updated; returns the new total"),
+                @ApiResponse(responseCode = "400", description = "Invalid request"),
+                @ApiResponse(responseCode = "404", description = "User not found"),
+                @ApiResponse(responseCode = "403", description = "Forbidden - Requires ADMIN role")
+        })
+        @PatchMapping("/{id}/exp")
+        public ResponseEntity<UserExpResponse> addExp(
+                @Parameter(description = "Long ID of the user") @PathVariable("id") Long id,
+                @Valid @RequestBody AddExpRequest request) {
+                long totalExp = userService.addExp(id, request.getDelta());
+                return ResponseEntity.ok(new UserExpResponse(id, totalExp));
+        }
+
         @IsAdmin
         @Operation(summary = "Convert UUID to Long ID", description = "Utility endpoint for UUID to ID conversion")
         @ApiResponses(value = {
@@ -447,6 +473,27 @@ public class UserController {
                 }
         }
 
+        @IsAdmin
+        @Operation(summary = "Bulk import users (Admin only)",
+                description = "Streams a CSV body (header row with RegistrationRequest field names) or an NDJSON body "
+                        + "and creates the users in batches. Returns a per-row result report")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Import processed, see per-row results"),
+                @ApiResponse(responseCode = "400", description = "Unsupported content type"),
+                @ApiResponse(responseCode = "403", description = "Forbidden - Requires ADMIN role")
+        })
+        @PostMapping(value = "/admin/import", consumes = {"text/csv", "application/x-ndjson"})
+        public ResponseEntity<?> importUsers(HttpServletRequest request) throws IOException {
+                try {
+                        UserImportFormat format = UserImportFormat.fromContentType(request.getContentType());
+                        UserImportReport report = userImportService.importUsers(request.getInputStream(), format);
+                        return ResponseEntity.ok(report);
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest()
+                                .body(Map.of("error", e.getMessage()));
+                }
+        }
+
         @GetMapping("/me/data")
         @Operation(summary = "Get current user's data", description = "Retrieves the authenticated user's data for AI recommendations")
         @ApiResponses(value = {
@@ -470,6 +517,9 @@ public class UserController {
                 existingUser.setHeight(updateRequest.getHeight());
                 existingUser.setInitialWeight(updateRequest.getInitialWeight());
                 existingUser.setGoalType(updateRequest.getGoalType());
+                if (updateRequest.getUtcOffsetMinutes() != null) {
+                        existingUser.setUtcOffsetMinutes(updateRequest.getUtcOffsetMinutes());
+                }
 
                 // Don't modify userId or uuidString - these should remain constant
                 // REMOVED: Avatar creation - users create avatars separately through avatar endpoints
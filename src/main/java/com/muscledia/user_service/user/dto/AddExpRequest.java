@@ -0,0 +1,16 @@
+package com.muscledia.user_service.user.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddExpRequest {
+
+    // Negative to subtract; the total never drops below 0
+    @NotNull(message = "delta is required")
+    private Long delta;
+}
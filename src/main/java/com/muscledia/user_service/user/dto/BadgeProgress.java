@@ -0,0 +1,18 @@
+package com.muscledia.user_service.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of one badge after an update was applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeProgress {
+
+    private Long badgeId;
+
+    private int progress;
+}
@@ -0,0 +1,46 @@
+package com.muscledia.user_service.user.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeProgressUpdateRequest {
+
+    @NotEmpty(message = "At least one progress update is required")
+    @Size(max = 500, message = "At most 500 progress updates per request")
+    private List<@Valid @NotNull Update> updates;
+
+    /**
+     * Either adds {@code delta} to the stored progress (negative to subtract, never below 0)
+     * or sets it to {@code absolute}. Updates are applied in request order.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Update {
+
+        @NotNull(message = "badgeId is required")
+        private Long badgeId;
+
+        private Integer delta;
+
+        @PositiveOrZero(message = "Progress cannot be negative")
+        private Integer absolute;
+
+        @AssertTrue(message = "Exactly one of delta or absolute is required")
+        private boolean isDeltaOrAbsolute() {
+            return (delta == null) != (absolute == null);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.muscledia.user_service.user.dto;
 import com.muscledia.user_service.avatar.entity.AvatarType;
 import com.muscledia.user_service.user.entity.GoalType;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
@@ -37,5 +39,10 @@ public class RegistrationRequest {
 
     private GoalType goalType;
 
+    // Minutes ahead of UTC of the user's local time (-720 to +840); left unchanged on update when null
+    @Min(-720)
+    @Max(840)
+    private Integer utcOffsetMinutes;
+
     // REMOVED: private AvatarType initialAvatarType;
 }
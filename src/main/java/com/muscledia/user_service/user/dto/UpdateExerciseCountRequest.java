@@ -1,5 +1,6 @@
 package com.muscledia.user_service.user.dto;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -9,6 +10,13 @@ public class UpdateExerciseCountRequest {
     private Long userId;
     @NotNull(message = "championId is required")
     private Long championId;
-    @NotNull(message = "count is required")
+    // New absolute count
     private Integer count;
+    // Or an amount to add to the current count (negative to subtract, never below 0)
+    private Integer delta;
+
+    @AssertTrue(message = "Exactly one of count or delta is required")
+    private boolean isCountOrDelta() {
+        return (count == null) != (delta == null);
+    }
 }
@@ -0,0 +1,8 @@
+package com.muscledia.user_service.user.dto;
+
+/**
+ * Outcome of an idempotent create: the resulting value, and whether this call created it
+ * (201) or it already existed (200).
+ */
+public record UpsertResult<T>(T value, boolean created) {
+}
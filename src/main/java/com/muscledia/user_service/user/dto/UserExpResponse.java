@@ -0,0 +1,14 @@
+package com.muscledia.user_service.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExpResponse {
+
+    private Long userId;
+    private long totalExp;
+}
@@ -0,0 +1,35 @@
+package com.muscledia.user_service.user.dto;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Body formats accepted by the bulk user import endpoint.
+ */
+public enum UserImportFormat {
+    /** Comma separated, first line is a header naming the RegistrationRequest fields */
+    CSV("text/csv"),
+    /** One RegistrationRequest JSON object per line */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    UserImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static UserImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (UserImportFormat format : values()) {
+                if (MediaType.parseMediaType(format.mediaType).equalsTypeAndSubtype(type)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+    }
+}
@@ -0,0 +1,33 @@
+package com.muscledia.user_service.user.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-row report returned by the bulk user import endpoint.
+ */
+@Getter
+public class UserImportReport {
+    private long total;
+    private long created;
+    private long skipped;
+    private long failed;
+    private long elapsedMillis;
+    private final List<UserImportResult> results = new ArrayList<>();
+
+    public void add(UserImportResult result) {
+        results.add(result);
+        total++;
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case SKIPPED -> skipped++;
+            case FAILED -> failed++;
+        }
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,43 @@
+package com.muscledia.user_service.user.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single row of a bulk user import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResult {
+
+    public enum Status {
+        CREATED,
+        SKIPPED,
+        FAILED
+    }
+
+    private long line;
+    private String username;
+    private Status status;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long userId;
+
+    private String message;
+
+    public static UserImportResult created(long line, String username, Long userId) {
+        return new UserImportResult(line, username, Status.CREATED, userId, null);
+    }
+
+    public static UserImportResult skipped(long line, String username, String message) {
+        return new UserImportResult(line, username, Status.SKIPPED, null, message);
+    }
+
+    public static UserImportResult failed(long line, String username, String message) {
+        return new UserImportResult(line, username, Status.FAILED, null, message);
+    }
+}
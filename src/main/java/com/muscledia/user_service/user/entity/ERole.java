@@ -1,7 +1,42 @@
 package com.muscledia.user_service.user.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fixed set of roles. Each role owns one bit of the {@code users.role_mask} column,
+ * so the bit values must never be reassigned once rows have been written.
+ */
 public enum ERole {
-    ROLE_USER,
-    ROLE_ADMIN,
-    ROLE_MODERATOR
-}
\ No newline at end of file
+    ROLE_USER(1),
+    ROLE_ADMIN(1 << 1),
+    ROLE_MODERATOR(1 << 2);
+
+    private final int bit;
+
+    ERole(int bit) {
+        this.bit = bit;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+
+    public static int toMask(Set<ERole> roles) {
+        int mask = 0;
+        for (ERole role : roles) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    public static EnumSet<ERole> fromMask(int mask) {
+        EnumSet<ERole> roles = EnumSet.noneOf(ERole.class);
+        for (ERole role : values()) {
+            if ((mask & role.bit) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+}
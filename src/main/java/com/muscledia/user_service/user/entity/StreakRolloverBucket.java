@@ -0,0 +1,54 @@
+package com.muscledia.user_service.user.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the daily streak rollover of the users at one UTC offset, and the lease of the
+ * node running it. Written only with SQL by {@code StreakRollover}; mapped so the table is
+ * created with the schema.
+ */
+@Entity
+@Table(name = "streak_rollover_buckets")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StreakRolloverBucket {
+
+    @Id
+    @Column(name = "utc_offset_minutes")
+    private Integer utcOffsetMinutes;
+
+    // Local day whose rollover is running or, once completedAt is set, done
+    @Column(name = "rollover_date", nullable = false)
+    private LocalDate rolloverDate;
+
+    // Users of the bucket up to this ID are done for rolloverDate; an interrupted run resumes after it
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+
+    @Column(name = "users_reset", nullable = false)
+    private Long usersReset;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+}
@@ -1,5 +1,6 @@
 package com.muscledia.user_service.user.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -8,16 +9,22 @@ import com.muscledia.user_service.avatar.entity.Avatar;
 import com.muscledia.user_service.avatar.entity.AvatarType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_deleted_at", columnList = "deleted_at"),
+        @Index(name = "idx_users_utc_offset", columnList = "utc_offset_minutes, user_id")
+})
+@SQLRestriction("deleted_at IS NULL") // tombstoned users are invisible until UserPurger removes them
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -75,9 +82,27 @@ public class User {
     @JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
 
+    // Bitmask of ERole bits; NULL means the row has not been backfilled from user_roles yet
+    @JsonIgnore
+    @Column(name = "role_mask")
+    private Integer roleMask;
+
     @Column(name = "current_streak", columnDefinition = "INT DEFAULT 0")
     private Integer currentStreak;
 
+    // Day of the latest completed workout counted in currentStreak
+    @Column(name = "last_workout_date")
+    private LocalDate lastWorkoutDate;
+
+    // currentStreak before the daily rollover reset it, restored if a late workout fills the missed day
+    @JsonIgnore
+    @Column(name = "lapsed_streak", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer lapsedStreak = 0;
+
+    // Offset from UTC of the user's local time; decides their calendar day and when their streak rolls over
+    @Column(name = "utc_offset_minutes", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer utcOffsetMinutes = 0;
+
     @Column(name = "total_exp", columnDefinition = "BIGINT DEFAULT 0")
     private Long totalExp;
 
@@ -90,6 +115,11 @@ public class User {
     @Column(name = "updated_at", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP")
     private LocalDateTime updatedAt;
 
+    // Set when the user is deleted; the row and its children are purged in the background
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @PrePersist
     public void prePersist() {
         if (this.createdAt == null) {
@@ -120,6 +150,23 @@ public class User {
         this.roles.remove(role);
     }
 
+    /**
+     * Roles decoded from the bitmask column. Returns a copy, so mutate through
+     * {@link #grantRole(ERole)} and {@link #revokeRole(ERole)}.
+     */
+    @JsonIgnore
+    public EnumSet<ERole> getRoleSet() {
+        return ERole.fromMask(roleMask != null ? roleMask : 0);
+    }
+
+    public void grantRole(ERole role) {
+        this.roleMask = (roleMask != null ? roleMask : 0) | role.getBit();
+    }
+
+    public void revokeRole(ERole role) {
+        this.roleMask = (roleMask != null ? roleMask : 0) & ~role.getBit();
+    }
+
     public Object getInitialAvatarType() {
         return initialAvatarType != null ? initialAvatarType.name() : null;
     }
@@ -162,6 +209,9 @@ public class User {
      * Business logic: Check if user has a specific role
      */
     public boolean hasRole(ERole roleName) {
+        if (roleMask != null) {
+            return (roleMask & roleName.getBit()) != 0;
+        }
         return roles.stream()
                 .anyMatch(role -> role.getName() == roleName);
     }
@@ -209,5 +259,6 @@ public class User {
                 .orElse(new Role(ERole.ROLE_ADMIN));
 
         roles.add(adminRole);
+        grantRole(ERole.ROLE_ADMIN);
     }
 }
@@ -9,7 +9,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_champions")
+@Table(
+        name = "user_champions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_champion", columnNames = {"user_id", "champion_id"})
+)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -2,7 +2,11 @@ package com.muscledia.user_service.user.repo;
 
 import com.muscledia.user_service.user.entity.UserBadge;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +15,12 @@ public interface UserBadgeRepository extends JpaRepository<UserBadge, Long> {
 
     Optional<UserBadge> findByUser_UserIdAndBadgeId(Long userId, Long badgeId);
 
+    // Award in one statement: 1 if awarded now, 0 if the user already has the badge or does
+    // not exist. IGNORE rather than ON DUPLICATE KEY UPDATE, whose affected-row count is 1
+    // for an unchanged duplicate too under Connector/J's default found-rows mode
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO user_badges (user_id, badge_id, progress, earned_date, created_at) " +
+            "SELECT u.user_id, :badgeId, 0, :now, :now FROM users u WHERE u.user_id = :userId AND u.deleted_at IS NULL",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("badgeId") Long badgeId, @Param("now") LocalDateTime now);
 }
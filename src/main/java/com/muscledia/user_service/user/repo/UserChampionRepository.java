@@ -2,7 +2,11 @@ package com.muscledia.user_service.user.repo;
 
 import com.muscledia.user_service.user.entity.UserChampion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +14,29 @@ public interface UserChampionRepository extends JpaRepository<UserChampion, Long
     Optional<UserChampion> findByUser_UserIdAndChampionId(Long userId, Long championId);
 
     List<UserChampion> findByUser_UserId(Long userId);
+
+    boolean existsByUser_UserIdAndChampionId(Long userId, Long championId);
+
+    // Increment in the database, so concurrent deltas for the same battle are never lost
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE user_champions SET current_exercise_count = GREATEST(0, current_exercise_count + :delta), " +
+            "updated_at = NOW() WHERE user_id = :userId AND champion_id = :championId",
+            nativeQuery = true)
+    int addExerciseCount(@Param("userId") Long userId, @Param("championId") Long championId, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE user_champions SET defeated = TRUE, defeat_date = :now, updated_at = :now " +
+            "WHERE user_id = :userId AND champion_id = :championId AND (defeated IS NULL OR defeated = FALSE)",
+            nativeQuery = true)
+    int markDefeated(@Param("userId") Long userId, @Param("championId") Long championId, @Param("now") LocalDateTime now);
+
+    // Start a battle in one statement relying on uk_user_champion: 1 if created, 0 if it
+    // already exists or the user does not (see UserBadgeRepository#insertIfAbsent)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT IGNORE INTO user_champions " +
+            "(user_id, champion_id, current_exercise_count, defeated, created_at, updated_at) " +
+            "SELECT u.user_id, :championId, 0, FALSE, :now, :now FROM users u " +
+            "WHERE u.user_id = :userId AND u.deleted_at IS NULL",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("championId") Long championId, @Param("now") LocalDateTime now);
 }
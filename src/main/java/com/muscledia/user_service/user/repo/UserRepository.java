@@ -1,11 +1,18 @@
 package com.muscledia.user_service.user.repo;
 
 import com.muscledia.user_service.user.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
@@ -16,13 +23,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
+    // Tombstoned users keep their username and email until purged, so these
+    // uniqueness checks run natively, past the soft-delete restriction
+    @Query(value = "SELECT COUNT(*) FROM users WHERE username = :username", nativeQuery = true)
+    long countByUsernameIncludingDeleted(@Param("username") String username);
+
+    @Query(value = "SELECT COUNT(*) FROM users WHERE email = :email", nativeQuery = true)
+    long countByEmailIncludingDeleted(@Param("email") String email);
+
 
     // New UUID-based methods
     Optional<User> findByUuidString(String uuidString);
 
     boolean existsByUuidString(String uuidString);
 
-    void deleteByUuidString(String uuidString);
+    // Soft delete: the row stays until UserPurger has removed its children
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE users SET deleted_at = :deletedAt WHERE user_id = :userId AND deleted_at IS NULL",
+            nativeQuery = true)
+    int markDeleted(@Param("userId") Long userId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE users SET total_exp = GREATEST(0, COALESCE(total_exp, 0) + :delta) " +
+            "WHERE user_id = :userId AND deleted_at IS NULL",
+            nativeQuery = true)
+    int addExp(@Param("userId") Long userId, @Param("delta") long delta);
 
     // Custom query methods for better performance
     @Query("SELECT u.userId FROM User u WHERE u.uuidString = :uuidString")
@@ -30,4 +55,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u.uuidString FROM User u WHERE u.userId = :userId")
     Optional<String> findUuidStringByUserId(@Param("userId") Long userId);
+
+    // Stored exp, read without flushing so a pending change to the same user is not seen yet
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT u.totalExp FROM User u WHERE u.userId = :userId")
+    Optional<Long> findTotalExpByUserId(@Param("userId") Long userId);
+
+    // Bulk import: one round trip per batch instead of an exists-check per row
+    @Query(value = "SELECT username FROM users WHERE username IN (:usernames)", nativeQuery = true)
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query(value = "SELECT email FROM users WHERE email IN (:emails)", nativeQuery = true)
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
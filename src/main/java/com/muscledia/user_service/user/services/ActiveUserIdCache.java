@@ -0,0 +1,85 @@
+package com.muscledia.user_service.user.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muscledia.user_service.config.cache.CacheInvalidationHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * IDs of users known to exist and not be deleted, for bulk writers that only need to know
+ * whether a user ID is valid. Misses are resolved together with one {@code IN} query instead
+ * of loading each user. Only hits are cached, so a user created a moment ago is never
+ * rejected; deleting a user evicts it on every node (see {@link UserServiceImpl}).
+ */
+@Component
+public class ActiveUserIdCache implements CacheInvalidationHandler {
+
+    public static final String REGION = "active-user-ids";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Boolean> activeIds;
+
+    public ActiveUserIdCache(JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${muscledia.users.active-id-cache.max-size:500000}") long maxSize,
+                             @Value("${muscledia.users.active-id-cache.max-age:30m}") Duration maxAge) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.activeIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, activeIds, "activeUserIds");
+    }
+
+    /**
+     * @return the subset of {@code userIds} that belong to existing, non-deleted users
+     */
+    public Set<Long> filterActive(Collection<Long> userIds) {
+        Set<Long> active = new HashSet<>();
+        List<Long> misses = userIds.stream()
+                .distinct()
+                .filter(userId -> {
+                    boolean hit = activeIds.getIfPresent(userId) != null;
+                    if (hit) {
+                        active.add(userId);
+                    }
+                    return !hit;
+                })
+                .toList();
+        if (!misses.isEmpty()) {
+            List<Long> found = jdbcTemplate.queryForList(
+                    "SELECT user_id FROM users WHERE deleted_at IS NULL AND user_id IN (" +
+                            String.join(",", Collections.nCopies(misses.size(), "?")) + ")",
+                    Long.class, misses.toArray());
+            found.forEach(userId -> activeIds.put(userId, Boolean.TRUE));
+            active.addAll(found);
+        }
+        return active;
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (key == null) {
+            activeIds.invalidateAll();
+        } else {
+            activeIds.invalidate(Long.valueOf(key));
+        }
+    }
+}
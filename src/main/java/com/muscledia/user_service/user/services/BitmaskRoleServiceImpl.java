@@ -0,0 +1,52 @@
+package com.muscledia.user_service.user.services;
+
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.user.entity.ERole;
+import com.muscledia.user_service.user.entity.Role;
+import com.muscledia.user_service.user.entity.User;
+import com.muscledia.user_service.user.repo.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * Role storage backed only by {@code users.role_mask}. Role checks read a column
+ * that is already loaded with the user, so no join or lazy load is needed.
+ * The legacy user_roles table is no longer written; readers should use the
+ * {@code user_roles_view} view created by {@code RoleMaskMigration}.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "muscledia.roles.storage", havingValue = "bitmask")
+public class BitmaskRoleServiceImpl implements RoleService {
+
+    private final RoleRepository roleRepository;
+
+    @Override
+    public Role findByName(ERole name) {
+        return roleRepository.findByName(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + name));
+    }
+
+    @Override
+    public void addRoleToUser(User user, ERole roleName) {
+        user.grantRole(roleName);
+    }
+
+    @Override
+    public void removeRoleFromUser(User user, ERole roleName) {
+        user.revokeRole(roleName);
+    }
+
+    @Override
+    public boolean hasRole(User user, ERole roleName) {
+        return user.getRoleSet().contains(roleName);
+    }
+
+    @Override
+    public Set<ERole> getRoles(User user) {
+        return user.getRoleSet();
+    }
+}
@@ -0,0 +1,220 @@
+package com.muscledia.user_service.user.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.user.repo.UserChampionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Collects exercise count updates per {@code (userId, championId)} in memory and writes them
+ * as one JDBC batch, every {@code flush-interval} or once {@code flush-threshold} battles have
+ * pending changes. A battle updated once per logged set then costs one row update per flush
+ * instead of a select, update and commit per set.
+ *
+ * Deltas for the same battle are summed; an absolute count replaces whatever was pending
+ * before it. {@link UserChampionServiceImpl} flushes a user's battles before reading them or
+ * marking one defeated, so reads on this node always see every accepted update. Other nodes
+ * see them once flushed. Flushes are serialized, so a read never misses updates that a
+ * concurrent flush has taken out of the map but not yet committed.
+ */
+@Component
+@ConditionalOnProperty(value = "muscledia.champions.coalescing.enabled", havingValue = "true")
+@Slf4j
+public class ChampionProgressCoalescer {
+
+    private static final String UPDATE_SQL =
+            "UPDATE user_champions SET current_exercise_count = GREATEST(0, COALESCE(?, current_exercise_count) + ?), " +
+                    "updated_at = ? WHERE user_id = ? AND champion_id = ?";
+
+    private final UserChampionRepository userChampionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushThreshold;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    // Battles known to exist, so an update only queries the table the first time
+    private final Cache<Key, Boolean> knownBattles;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "champion-progress-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter updatesCounter;
+    private final Counter writesCounter;
+    private final Timer flushTimer;
+
+    public ChampionProgressCoalescer(UserChampionRepository userChampionRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${muscledia.champions.coalescing.flush-threshold:1000}") int flushThreshold,
+                                     @Value("${muscledia.champions.coalescing.known-battles-max-size:100000}") long knownBattlesMaxSize) {
+        this.userChampionRepository = userChampionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Own transaction: a flush from inside a caller's transaction must not be rolled
+        // back with it, as the drained updates would be lost
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flushThreshold = flushThreshold;
+        this.knownBattles = Caffeine.newBuilder()
+                .maximumSize(knownBattlesMaxSize)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+
+        Gauge.builder("champions.progress.pending", pending, Map::size)
+                .description("Battles with exercise count updates not yet written")
+                .register(meterRegistry);
+        this.updatesCounter = Counter.builder("champions.progress.updates")
+                .description("Exercise count updates accepted")
+                .register(meterRegistry);
+        this.writesCounter = Counter.builder("champions.progress.writes")
+                .description("Rows written for coalesced exercise count updates")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("champions.progress.flush")
+                .description("Time to write one batch of coalesced exercise counts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the user has no battle with the champion
+     */
+    public void setCount(Long userId, Long championId, int count) {
+        record(new Key(userId, championId), new Pending(count, 0));
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the user has no battle with the champion
+     */
+    public void addCount(Long userId, Long championId, int delta) {
+        record(new Key(userId, championId), new Pending(null, delta));
+    }
+
+    /**
+     * Writes everything pending for the user, including updates a concurrent flush is writing.
+     */
+    public void flush(Long userId) {
+        flush(key -> key.userId().equals(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${muscledia.champions.coalescing.flush-interval:1s}")
+    public void flushAll() {
+        flush(key -> true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flushAll();
+    }
+
+    private void record(Key key, Pending update) {
+        if (knownBattles.getIfPresent(key) == null) {
+            if (!userChampionRepository.existsByUser_UserIdAndChampionId(key.userId(), key.championId())) {
+                throw new ResourceNotFoundException(String.format(
+                        "Champion %d not found for user %d", key.championId(), key.userId()));
+            }
+            knownBattles.put(key, Boolean.TRUE);
+        }
+        pending.merge(key, update, Pending::then);
+        updatesCounter.increment();
+
+        if (pending.size() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushScheduled.set(false);
+                try {
+                    flushAll();
+                } catch (RuntimeException e) {
+                    // Already logged; the updates stay pending for the next flush
+                }
+            });
+        }
+    }
+
+    private void flush(Predicate<Key> selector) {
+        flushLock.lock();
+        try {
+            List<Map.Entry<Key, Pending>> batch = new ArrayList<>();
+            for (Key key : pending.keySet()) {
+                if (selector.test(key)) {
+                    Pending drained = pending.remove(key);
+                    if (drained != null) {
+                        batch.add(Map.entry(key, drained));
+                    }
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                // Put the updates back in front of anything recorded since, for the next flush
+                batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(),
+                        (newer, failed) -> failed.then(newer)));
+                log.warn("Failed to write {} coalesced exercise counts: {}", batch.size(), e.getMessage());
+                throw e;
+            }
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            writesCounter.increment(batch.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<Map.Entry<Key, Pending>> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(tx ->
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+                    ps.setObject(1, entry.getValue().count());
+                    ps.setInt(2, entry.getValue().delta());
+                    ps.setObject(3, now);
+                    ps.setLong(4, entry.getKey().userId());
+                    ps.setLong(5, entry.getKey().championId());
+                }));
+    }
+
+    private record Key(Long userId, Long championId) {
+    }
+
+    /**
+     * Net effect of the updates since the last flush: {@code count} (if any was set) plus {@code delta}.
+     */
+    private record Pending(Integer count, int delta) {
+
+        Pending then(Pending next) {
+            return next.count() != null ? next : new Pending(count, delta + next.delta());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.muscledia.user_service.user.services;
+
+import java.time.Instant;
+
+/**
+ * A completed workout to be counted towards the user's streak and exp.
+ *
+ * @param completedAt counted on the calendar day this falls on in the user's local time
+ */
+public record CompletedWorkout(String eventId, Long userId, Instant completedAt, long exp) {
+}
@@ -1,5 +1,7 @@
 package com.muscledia.user_service.user.services;
 
+import com.muscledia.user_service.user.dto.BadgeProgress;
+import com.muscledia.user_service.user.dto.BadgeProgressUpdateRequest;
 import com.muscledia.user_service.user.entity.UserBadge;
 
 import java.util.List;
@@ -14,5 +16,16 @@ public interface IUserBadgeService {
 
     void updateProgress(Long userId, Long badgeId, int progress);
 
-    void awardBadge(Long userId, Long badgeId); // Simplified awardBadge
+    /**
+     * Applies all updates atomically and returns the resulting progress of each badge touched.
+     * Fails without changing anything if one of the badges is not awarded to the user.
+     */
+    List<BadgeProgress> updateProgress(Long userId, List<BadgeProgressUpdateRequest.Update> updates);
+
+    /**
+     * Idempotent: awarding a badge the user already has changes nothing.
+     *
+     * @return true if the badge was awarded by this call, false if the user already had it
+     */
+    boolean awardBadge(Long userId, Long badgeId);
 }
@@ -1,5 +1,6 @@
 package com.muscledia.user_service.user.services;
 
+import com.muscledia.user_service.user.dto.UpsertResult;
 import com.muscledia.user_service.user.entity.UserChampion;
 
 import java.util.List;
@@ -15,7 +16,12 @@ public interface IUserChampionService {
 
     void updateExerciseCount(Long userId, Long championId, int count);
 
+    void addExerciseCount(Long userId, Long championId, int delta);
+
     void markChampionDefeated(Long userId, Long championId);
 
-    UserChampion startBattle(Long userId, Long championId);
+    /**
+     * Idempotent: starting a battle that already exists returns it unchanged.
+     */
+    UpsertResult<UserChampion> startBattle(Long userId, Long championId);
 }
@@ -0,0 +1,11 @@
+package com.muscledia.user_service.user.services;
+
+import com.muscledia.user_service.user.dto.UserImportFormat;
+import com.muscledia.user_service.user.dto.UserImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IUserImportService {
+    UserImportReport importUsers(InputStream body, UserImportFormat format) throws IOException;
+}
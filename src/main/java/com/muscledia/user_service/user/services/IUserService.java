@@ -39,6 +39,13 @@ public interface IUserService {
     // Statistics
     UserServiceImpl.UserStatistics getSystemStatistics();
 
+    /**
+     * Adds {@code delta} (negative to subtract, never below 0) to the user's total exp.
+     *
+     * @return the new total
+     */
+    long addExp(Long userId, long delta);
+
     UserDataDTO getUserData(Long userId);
 
     UserDataDTO getUserDataByUsername(String username);
@@ -4,6 +4,8 @@ import com.muscledia.user_service.user.entity.ERole;
 import com.muscledia.user_service.user.entity.Role;
 import com.muscledia.user_service.user.entity.User;
 
+import java.util.Set;
+
 public interface RoleService {
     Role findByName(ERole name);
 
@@ -12,4 +14,6 @@ public interface RoleService {
     void removeRoleFromUser(User user, ERole roleName);
 
     boolean hasRole(User user, ERole roleName);
-}
\ No newline at end of file
+
+    Set<ERole> getRoles(User user);
+}
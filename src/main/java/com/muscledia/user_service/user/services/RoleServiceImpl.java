@@ -6,33 +6,51 @@ import com.muscledia.user_service.user.entity.User;
 import com.muscledia.user_service.user.repo.RoleRepository;
 import com.muscledia.user_service.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default role storage: roles live in the user_roles join table.
+ * The bitmask column is written alongside so switching to
+ * {@link BitmaskRoleServiceImpl} needs no extra backfill for new changes.
+ */
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(value = "muscledia.roles.storage", havingValue = "join-table", matchIfMissing = true)
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
 
+    // Roles are seeded once and never change, so a lookup per register/promote is wasted work
+    private final Map<ERole, Role> roleCache = new ConcurrentHashMap<>();
+
     @Override
     public Role findByName(ERole name) {
-        return roleRepository.findByName(name)
-                .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + name));
+        return roleCache.computeIfAbsent(name, key -> roleRepository.findByName(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + key)));
     }
 
     @Override
     @Transactional
     public void addRoleToUser(User user, ERole roleName) {
-        Role role = findByName(roleName);
-        user.addRole(role);
+        if (!hasRole(user, roleName)) {
+            user.addRole(findByName(roleName));
+        }
+        user.grantRole(roleName);
     }
 
     @Override
     @Transactional
     public void removeRoleFromUser(User user, ERole roleName) {
-        Role role = findByName(roleName);
-        user.removeRole(role);
+        // Match by name: cached Role instances are not the ones held in the user's collection
+        user.getRoles().removeIf(role -> role.getName() == roleName);
+        user.revokeRole(roleName);
     }
 
     @Override
@@ -40,4 +58,11 @@ public class RoleServiceImpl implements RoleService {
         return user.getRoles().stream()
                 .anyMatch(role -> role.getName() == roleName);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Set<ERole> getRoles(User user) {
+        Set<ERole> roles = EnumSet.noneOf(ERole.class);
+        user.getRoles().forEach(role -> roles.add(role.getName()));
+        return roles;
+    }
+}
@@ -0,0 +1,295 @@
+package com.muscledia.user_service.user.services;
+
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resets the streak of every user who let a whole day pass without a workout. Users are
+ * bucketed by UTC offset, and each bucket is rolled over once its local midnight has passed,
+ * so the work is spread over the day instead of scanning every user at one time.
+ *
+ * A bucket is walked in user ID order through the {@code (utc_offset_minutes, user_id)}
+ * index: each wave takes the next {@code parallelism} chunks of {@code chunk-size} users and
+ * resets them with one auto-commit bulk UPDATE per chunk, concurrently. The
+ * {@code streak_rollover_buckets} row holds a lease, so only one node runs a bucket, and the
+ * last user ID of the last finished wave, so a run interrupted by a crash or a lost lease is
+ * resumed there by whichever node claims the bucket next. Re-running a chunk is harmless.
+ *
+ * A workout written concurrently locks its user row first (see {@link WorkoutProgressWriter}),
+ * and the UPDATE re-checks the row once that lock is released. A reset streak is kept in
+ * {@code lapsed_streak}, so a workout of the missed day that is only consumed after the
+ * rollover, say from a retry topic, still continues it. No cache holds streaks.
+ */
+@Component
+@ConditionalOnProperty(value = "muscledia.streaks.rollover.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StreakRollover {
+
+    private static final String RESET_SQL =
+            "UPDATE users SET lapsed_streak = current_streak, current_streak = 0 WHERE utc_offset_minutes = ? AND user_id > ? AND user_id <= ? " +
+                    "AND current_streak > 0 AND (last_workout_date IS NULL OR last_workout_date < ?)";
+    // MySQL assigns left to right: the CASEs still see the rollover_date being replaced
+    private static final String CLAIM_SQL =
+            "UPDATE streak_rollover_buckets SET " +
+                    "last_user_id = CASE WHEN rollover_date = ? THEN last_user_id ELSE 0 END, " +
+                    "users_reset = CASE WHEN rollover_date = ? THEN users_reset ELSE 0 END, " +
+                    "started_at = CASE WHEN rollover_date = ? THEN started_at ELSE NOW() END, " +
+                    "rollover_date = ?, completed_at = NULL, lease_owner = ?, lease_until = TIMESTAMPADD(SECOND, ?, NOW()) " +
+                    "WHERE utc_offset_minutes = ? AND (rollover_date < ? OR (rollover_date = ? AND completed_at IS NULL)) " +
+                    "AND (lease_owner IS NULL OR lease_until < NOW() OR lease_owner = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration checkInterval;
+    private final long leaseSeconds;
+    private final Map<Integer, BucketMeters> meters = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "streak-rollover");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Chunks block on the database, each holding a connection; parallelism bounds how many at once
+    private final ExecutorService chunkWorkers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StreakRollover(JdbcTemplate jdbcTemplate,
+                          CacheInvalidator cacheInvalidator,
+                          MeterRegistry meterRegistry,
+                          @Value("${muscledia.streaks.rollover.chunk-size:1000}") int chunkSize,
+                          @Value("${muscledia.streaks.rollover.parallelism:4}") int parallelism,
+                          @Value("${muscledia.streaks.rollover.check-interval:1m}") Duration checkInterval,
+                          @Value("${muscledia.streaks.rollover.lease:2m}") Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = cacheInvalidator.getNodeId();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.checkInterval = checkInterval;
+        this.leaseSeconds = lease.toSeconds();
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::rollOverDueQuietly,
+                checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        chunkWorkers.shutdownNow();
+    }
+
+    /**
+     * Rolls over every bucket whose local day has started since its last rollover.
+     */
+    void rollOverDue() {
+        Instant now = Instant.now();
+        Map<Integer, BucketState> states = new HashMap<>();
+        jdbcTemplate.query("SELECT utc_offset_minutes, rollover_date, completed_at FROM streak_rollover_buckets",
+                (RowCallbackHandler) rs -> states.put(rs.getInt("utc_offset_minutes"),
+                        new BucketState(rs.getDate("rollover_date").toLocalDate(), rs.getTimestamp("completed_at") != null)));
+
+        for (Integer offsetMinutes : jdbcTemplate.queryForList("SELECT DISTINCT utc_offset_minutes FROM users", Integer.class)) {
+            ZoneOffset zone = ZoneOffset.ofTotalSeconds(offsetMinutes * 60);
+            LocalDate today = LocalDate.ofInstant(now, zone);
+            BucketMeters bucket = meters.computeIfAbsent(offsetMinutes, offset -> new BucketMeters(zone));
+            BucketState state = states.get(offsetMinutes);
+            if (state == null) {
+                // A new bucket: today is its first rollover
+                jdbcTemplate.update("INSERT IGNORE INTO streak_rollover_buckets (utc_offset_minutes, rollover_date, " +
+                        "last_user_id, users_reset, completed_at) VALUES (?, ?, 0, 0, NOW())", offsetMinutes, today.minusDays(1));
+            } else if (state.doneFor(today)) {
+                bucket.lagSeconds.set(0);
+                continue;
+            }
+
+            Instant midnight = today.atStartOfDay(zone).toInstant();
+            bucket.lagSeconds.set(Duration.between(midnight, now).toSeconds());
+            try {
+                if (rollOver(offsetMinutes, today, bucket)) {
+                    bucket.lagSeconds.set(0);
+                    bucket.completionLag.record(Duration.between(midnight, Instant.now()).toSeconds());
+                }
+            } catch (Exception e) {
+                // Keeps the users done so far; the next claim of the bucket resumes after them
+                log.error("Streak rollover of {} for {} failed: {}", bucket.label, today, e.getMessage(), e);
+                jdbcTemplate.update("UPDATE streak_rollover_buckets SET lease_owner = NULL, lease_until = NULL " +
+                        "WHERE utc_offset_minutes = ? AND lease_owner = ?", offsetMinutes, nodeId);
+            }
+        }
+    }
+
+    /**
+     * @return true if this node completed the bucket's rollover for {@code today}; false if
+     * another node holds it or already did it
+     */
+    private boolean rollOver(int offsetMinutes, LocalDate today, BucketMeters bucket)
+            throws InterruptedException, ExecutionException {
+        Date day = Date.valueOf(today);
+        if (jdbcTemplate.update(CLAIM_SQL, day, day, day, day, nodeId, leaseSeconds,
+                offsetMinutes, day, day, nodeId) == 0) {
+            return false;
+        }
+        Long cursor = jdbcTemplate.queryForObject(
+                "SELECT last_user_id FROM streak_rollover_buckets WHERE utc_offset_minutes = ?", Long.class, offsetMinutes);
+        // Streaks survive while the last workout was yesterday or today
+        Date missedBefore = Date.valueOf(today.minusDays(1));
+
+        long start = System.nanoTime();
+        long scanned = 0;
+        long reset = 0;
+        long from = cursor != null ? cursor : 0;
+        while (true) {
+            List<Chunk> wave = new ArrayList<>(parallelism);
+            while (wave.size() < parallelism) {
+                Chunk chunk = nextChunk(offsetMinutes, from);
+                if (chunk == null) {
+                    break;
+                }
+                wave.add(chunk);
+                from = chunk.toUserId();
+            }
+            if (wave.isEmpty()) {
+                break;
+            }
+
+            List<Future<Integer>> updates = new ArrayList<>(wave.size());
+            for (Chunk chunk : wave) {
+                updates.add(chunkWorkers.submit(() -> jdbcTemplate.update(RESET_SQL,
+                        offsetMinutes, chunk.fromUserId(), chunk.toUserId(), missedBefore)));
+            }
+            long waveReset = 0;
+            for (Future<Integer> update : updates) {
+                waveReset += update.get();
+            }
+            long waveUsers = wave.stream().mapToLong(Chunk::users).sum();
+            scanned += waveUsers;
+            reset += waveReset;
+            bucket.scanned.increment(waveUsers);
+            bucket.reset.increment(waveReset);
+
+            if (jdbcTemplate.update("UPDATE streak_rollover_buckets SET last_user_id = ?, users_reset = users_reset + ?, " +
+                            "lease_until = TIMESTAMPADD(SECOND, ?, NOW()) WHERE utc_offset_minutes = ? AND lease_owner = ? " +
+                            "AND rollover_date = ?",
+                    from, waveReset, leaseSeconds, offsetMinutes, nodeId, day) == 0) {
+                log.warn("Lost the streak rollover lease of {} for {} after user {}", bucket.label, today, from);
+                return false;
+            }
+        }
+
+        jdbcTemplate.update("UPDATE streak_rollover_buckets SET completed_at = NOW(), lease_owner = NULL, lease_until = NULL " +
+                "WHERE utc_offset_minutes = ? AND lease_owner = ? AND rollover_date = ?", offsetMinutes, nodeId, day);
+        long elapsed = System.nanoTime() - start;
+        bucket.duration.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Rolled over streaks of {} for {}: {} of {} users reset in {} ms ({} users per second)",
+                bucket.label, today, reset, scanned, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                Math.round(scanned * 1e9 / Math.max(1, elapsed)));
+        return true;
+    }
+
+    /**
+     * The next {@code chunk-size} users of the bucket after {@code afterUserId}, read from the
+     * index alone; null when there are none.
+     */
+    private Chunk nextChunk(int offsetMinutes, long afterUserId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) AS users, MAX(user_id) AS last_user_id FROM (SELECT user_id FROM users " +
+                        "WHERE utc_offset_minutes = ? AND user_id > ? ORDER BY user_id LIMIT ?) chunk",
+                (rs, rowNum) -> rs.getLong("users") == 0 ? null
+                        : new Chunk(afterUserId, rs.getLong("last_user_id"), rs.getLong("users")),
+                offsetMinutes, afterUserId, chunkSize);
+    }
+
+    private void rollOverDueQuietly() {
+        try {
+            rollOverDue();
+        } catch (Exception e) {
+            log.error("Streak rollover check failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Users with IDs in {@code (fromUserId, toUserId]}.
+     */
+    private record Chunk(long fromUserId, long toUserId, long users) {
+    }
+
+    record BucketState(LocalDate rolloverDate, boolean completed) {
+
+        boolean doneFor(LocalDate today) {
+            return rolloverDate.isAfter(today) || (rolloverDate.equals(today) && completed);
+        }
+    }
+
+    private final class BucketMeters {
+
+        // UTC, UTC+05:30, ...
+        final String label;
+        // Seconds since local midnight while today's rollover is not done; 0 once it is
+        final AtomicLong lagSeconds = new AtomicLong();
+        final Timer duration;
+        final Counter scanned;
+        final Counter reset;
+        final DistributionSummary completionLag;
+
+        BucketMeters(ZoneOffset zone) {
+            this.label = zone.getTotalSeconds() == 0 ? "UTC" : "UTC" + zone.getId();
+            Gauge.builder("streaks.rollover.lag", lagSeconds, AtomicLong::get)
+                    .description("Seconds since local midnight that the bucket's rollover has been due")
+                    .baseUnit("seconds")
+                    .tag("utc_offset", label)
+                    .register(meterRegistry);
+            this.duration = Timer.builder("streaks.rollover.duration")
+                    .description("Time for this node to roll over one bucket")
+                    .tag("utc_offset", label)
+                    .register(meterRegistry);
+            this.scanned = Counter.builder("streaks.rollover.users.scanned")
+                    .description("Users checked by the streak rollover")
+                    .tag("utc_offset", label)
+                    .register(meterRegistry);
+            this.reset = Counter.builder("streaks.rollover.users.reset")
+                    .description("Streaks reset because a day was missed")
+                    .tag("utc_offset", label)
+                    .register(meterRegistry);
+            this.completionLag = DistributionSummary.builder("streaks.rollover.completion-lag")
+                    .description("Seconds from local midnight until the bucket's rollover completed")
+                    .baseUnit("seconds")
+                    .tag("utc_offset", label)
+                    .register(meterRegistry);
+        }
+    }
+}
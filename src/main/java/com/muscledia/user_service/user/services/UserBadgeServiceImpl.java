@@ -1,28 +1,49 @@
 package com.muscledia.user_service.user.services;
 
-import com.muscledia.user_service.user.entity.User;
+import com.muscledia.user_service.leaderboard.service.GamificationCounters;
+import com.muscledia.user_service.user.dto.BadgeProgress;
+import com.muscledia.user_service.user.dto.BadgeProgressUpdateRequest;
 import com.muscledia.user_service.user.entity.UserBadge;
-import com.muscledia.user_service.exception.BadgeAlreadyAwardedException;
 import com.muscledia.user_service.exception.ResourceNotFoundException;
 import com.muscledia.user_service.user.repo.UserBadgeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserBadgeServiceImpl implements IUserBadgeService {
 
+    // One statement shape for both kinds of update, so the whole request is a single JDBC
+    // batch: absolute sets COALESCE's first argument and a zero delta, delta leaves it null
+    private static final String UPDATE_PROGRESS_SQL =
+            "UPDATE user_badges SET progress = GREATEST(0, COALESCE(?, progress) + ?) " +
+                    "WHERE user_id = ? AND badge_id = ?";
+
     private final UserBadgeRepository userBadgeRepository;
     private final IUserService userService;
+    private final JdbcTemplate jdbcTemplate;
+    private final GamificationCounters gamificationCounters;
 
     @Override
     @Transactional
     public UserBadge saveUserBadge(UserBadge userBadge) {
-        return userBadgeRepository.save(userBadge);
+        boolean created = userBadge.getUserBadgeId() == null;
+        UserBadge saved = userBadgeRepository.save(userBadge);
+        if (created) {
+            gamificationCounters.badgeAwarded(saved.getBadgeId());
+        }
+        return saved;
     }
 
     @Override
@@ -50,19 +71,56 @@ public class UserBadgeServiceImpl implements IUserBadgeService {
 
     @Override
     @Transactional
-    public void awardBadge(Long userId, Long badgeId) {
-        // Check if badge is already awarded
-        if (getUserBadge(userId, badgeId).isPresent()) {
-            throw new BadgeAlreadyAwardedException(
-                    String.format("Badge %d is already awarded to user %d", badgeId, userId));
+    public List<BadgeProgress> updateProgress(Long userId, List<BadgeProgressUpdateRequest.Update> updates) {
+        // Rows are locked in badge order, so two requests for the same user never wait on each
+        // other in a cycle; the sort is stable, so updates of one badge still apply in request order
+        List<BadgeProgressUpdateRequest.Update> ordered = new ArrayList<>(updates);
+        ordered.sort(Comparator.comparing(BadgeProgressUpdateRequest.Update::getBadgeId));
+        jdbcTemplate.batchUpdate(UPDATE_PROGRESS_SQL, ordered, ordered.size(), (ps, update) -> {
+            ps.setObject(1, update.getAbsolute());
+            ps.setInt(2, update.getDelta() != null ? update.getDelta() : 0);
+            ps.setLong(3, userId);
+            ps.setLong(4, update.getBadgeId());
+        });
+
+        // Rows are locked by the updates above, so these are exactly the values this request produced.
+        // Update counts are not reliable with rewritten batches, hence the check on what was read
+        Set<Long> badgeIds = new LinkedHashSet<>();
+        updates.forEach(update -> badgeIds.add(update.getBadgeId()));
+        List<BadgeProgress> result = jdbcTemplate.query(
+                "SELECT badge_id, progress FROM user_badges WHERE user_id = ? AND badge_id IN (" +
+                        String.join(",", Collections.nCopies(badgeIds.size(), "?")) + ") ORDER BY badge_id",
+                (rs, rowNum) -> new BadgeProgress(rs.getLong("badge_id"), rs.getInt("progress")),
+                concat(userId, badgeIds));
+        if (result.size() < badgeIds.size()) {
+            result.forEach(progress -> badgeIds.remove(progress.getBadgeId()));
+            throw new ResourceNotFoundException(
+                    String.format("Badges %s not found for user %d", badgeIds, userId));
         }
+        return result;
+    }
 
-        User user = userService.getUserById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    private static Object[] concat(Long userId, Set<Long> badgeIds) {
+        Object[] args = new Object[badgeIds.size() + 1];
+        args[0] = userId;
+        int i = 1;
+        for (Long badgeId : badgeIds) {
+            args[i++] = badgeId;
+        }
+        return args;
+    }
 
-        UserBadge newUserBadge = new UserBadge();
-        newUserBadge.setUser(user);
-        newUserBadge.setBadgeId(badgeId);
-        saveUserBadge(newUserBadge);
+    @Override
+    @Transactional
+    public boolean awardBadge(Long userId, Long badgeId) {
+        if (userBadgeRepository.insertIfAbsent(userId, badgeId, LocalDateTime.now()) > 0) {
+            gamificationCounters.badgeAwarded(badgeId);
+            return true;
+        }
+        // Nothing inserted: tell an existing award apart from an unknown user
+        if (userService.getUserById(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return false;
     }
 }
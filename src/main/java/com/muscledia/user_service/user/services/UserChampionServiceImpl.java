@@ -1,9 +1,13 @@
 package com.muscledia.user_service.user.services;
 
-import com.muscledia.user_service.user.entity.User;
+import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.leaderboard.service.ChampionDefeatLeaderboard;
+import com.muscledia.user_service.leaderboard.service.GamificationCounters;
+import com.muscledia.user_service.user.dto.UpsertResult;
 import com.muscledia.user_service.user.entity.UserChampion;
 import com.muscledia.user_service.user.repo.UserChampionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,57 +20,99 @@ import java.util.Optional;
 public class UserChampionServiceImpl implements IUserChampionService {
 
     private final UserChampionRepository userChampionRepository;
-    private final IUserService userService; // Inject UserService
+    private final ChampionDefeatLeaderboard championDefeatLeaderboard;
+    private final GamificationCounters gamificationCounters;
+    // Present with muscledia.champions.coalescing.enabled=true
+    private final ObjectProvider<ChampionProgressCoalescer> progressCoalescer;
 
     @Override
     @Transactional
     public UserChampion saveUserChampion(UserChampion userChampion) {
-        return userChampionRepository.save(userChampion);
+        boolean created = userChampion.getId() == null;
+        UserChampion saved = userChampionRepository.save(userChampion);
+        if (created) {
+            gamificationCounters.battleStarted(saved.getChampionId());
+            if (Boolean.TRUE.equals(saved.getDefeated())) {
+                gamificationCounters.championDefeated(saved.getChampionId());
+            }
+        }
+        return saved;
     }
 
     @Override
     public Optional<UserChampion> getUserChampion(Long userId, Long championId) {
+        flushPendingProgress(userId);
         return userChampionRepository.findByUser_UserIdAndChampionId(userId, championId);
     }
 
     @Override
     public List<UserChampion> getUserChampionsByUserId(Long userId) {
+        flushPendingProgress(userId);
         return userChampionRepository.findByUser_UserId(userId);
     }
 
     @Override
     @Transactional
     public void updateExerciseCount(Long userId, Long championId, int count) {
+        ChampionProgressCoalescer coalescer = progressCoalescer.getIfAvailable();
+        if (coalescer != null) {
+            coalescer.setCount(userId, championId, count);
+            return;
+        }
         UserChampion userChampion = getUserChampion(userId, championId)
-                .orElseThrow(() -> new RuntimeException("UserChampion not found")); // Handle not found
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Champion %d not found for user %d", championId, userId)));
         userChampion.setCurrentExerciseCount(count);
         userChampionRepository.save(userChampion);
     }
 
+    @Override
+    @Transactional
+    public void addExerciseCount(Long userId, Long championId, int delta) {
+        ChampionProgressCoalescer coalescer = progressCoalescer.getIfAvailable();
+        if (coalescer != null) {
+            coalescer.addCount(userId, championId, delta);
+            return;
+        }
+        if (userChampionRepository.addExerciseCount(userId, championId, delta) == 0) {
+            throw new ResourceNotFoundException(
+                    String.format("Champion %d not found for user %d", championId, userId));
+        }
+    }
+
     @Override
     @Transactional
     public void markChampionDefeated(Long userId, Long championId) {
         UserChampion userChampion = getUserChampion(userId, championId)
-                .orElseThrow(() -> new RuntimeException("UserChampion not found"));  // Handle not found
-        userChampion.setDefeated(true);
-        userChampion.setDefeatedDate(LocalDateTime.now());
-        userChampionRepository.save(userChampion);
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Champion %d not found for user %d", championId, userId)));
+        LocalDateTime now = LocalDateTime.now();
+        // Conditional update: of two concurrent defeats only one is counted
+        if (Boolean.TRUE.equals(userChampion.getDefeated())
+                || userChampionRepository.markDefeated(userId, championId, now) == 0) {
+            throw new IllegalStateException(
+                    String.format("Champion %d already defeated by user %d", championId, userId));
+        }
+        championDefeatLeaderboard.recordDefeat(championId, userId, userChampion.getCreatedAt(), now);
+        gamificationCounters.championDefeated(championId);
     }
 
     @Override
     @Transactional
-    public UserChampion startBattle(Long userId, Long championId) {
-        User user = userService.getUserById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Optional<UserChampion> existingBattle = getUserChampion(userId, championId);
-
-        if (existingBattle.isPresent()) {
-            return existingBattle.get(); // Or throw an exception
+    public UpsertResult<UserChampion> startBattle(Long userId, Long championId) {
+        boolean created = userChampionRepository.insertIfAbsent(userId, championId, LocalDateTime.now()) > 0;
+        if (created) {
+            gamificationCounters.battleStarted(championId);
         }
-        UserChampion userChampion = new UserChampion();
-        userChampion.setUser(user);
-        userChampion.setChampionId(championId);
-        return saveUserChampion(userChampion);
+        UserChampion battle = userChampionRepository.findByUser_UserIdAndChampionId(userId, championId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        return new UpsertResult<>(battle, created);
+    }
 
+    private void flushPendingProgress(Long userId) {
+        ChampionProgressCoalescer coalescer = progressCoalescer.getIfAvailable();
+        if (coalescer != null) {
+            coalescer.flush(userId);
+        }
     }
 }
@@ -0,0 +1,8 @@
+package com.muscledia.user_service.user.services;
+
+/**
+ * Published on this node once a change to a user's total exp has committed.
+ * {@code totalExp} is null when the user was deleted.
+ */
+public record UserExpChangedEvent(Long userId, Long totalExp) {
+}
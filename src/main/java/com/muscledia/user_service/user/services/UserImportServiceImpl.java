@@ -0,0 +1,375 @@
+package com.muscledia.user_service.user.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.muscledia.user_service.event.Publisher.UserEventPublisher;
+import com.muscledia.user_service.event.UserRegisteredEvent;
+import com.muscledia.user_service.user.dto.RegistrationRequest;
+import com.muscledia.user_service.user.dto.UserImportFormat;
+import com.muscledia.user_service.user.dto.UserImportReport;
+import com.muscledia.user_service.user.dto.UserImportResult;
+import com.muscledia.user_service.user.entity.ERole;
+import com.muscledia.user_service.user.entity.User;
+import com.muscledia.user_service.user.repo.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user import. The body is read line by line and handled in batches of
+ * {@code muscledia.users.import.batch-size} rows: conflicts are resolved with one query per
+ * batch, passwords are hashed in parallel on a bounded pool, users are persisted in one
+ * transaction using Hibernate JDBC batching, and registration events are sent after commit.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements IUserImportService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final UserRepository userRepository;
+    private final RoleService roleService;
+    private final PasswordEncoder passwordEncoder;
+    private final UuidToLongIdGenerator uuidGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ExecutorService hashingPool;
+
+    // Optional dependency - only injected if Kafka is enabled
+    @Autowired(required = false)
+    private UserEventPublisher eventPublisher;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 RoleService roleService,
+                                 PasswordEncoder passwordEncoder,
+                                 UuidToLongIdGenerator uuidGenerator,
+                                 PlatformTransactionManager transactionManager,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 @Value("${muscledia.users.import.batch-size:500}") int batchSize,
+                                 @Value("${muscledia.users.import.hash-threads:0}") int hashThreads) {
+        this.userRepository = userRepository;
+        this.roleService = roleService;
+        this.passwordEncoder = passwordEncoder;
+        this.uuidGenerator = uuidGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue with caller-runs: an import can never pile up more hashing work than the pool can absorb
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        log.info("UserImportService initialized with batch size {} and {} hashing threads", batchSize, threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    @Override
+    public UserImportReport importUsers(InputStream body, UserImportFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        UserImportReport report = new UserImportReport();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == UserImportFormat.CSV && header == null) {
+                    header = splitCsvLine(line);
+                    continue;
+                }
+
+                try {
+                    batch.add(new ImportRow(lineNumber, parseRow(line, format, header)));
+                } catch (Exception e) {
+                    report.add(UserImportResult.failed(lineNumber, null, "Unparseable row: " + e.getMessage()));
+                }
+
+                if (batch.size() >= batchSize) {
+                    importBatch(batch, report, seenUsernames, seenEmails);
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                importBatch(batch, report, seenUsernames, seenEmails);
+            }
+        }
+
+        report.getResults().sort(Comparator.comparingLong(UserImportResult::getLine));
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("User import finished: {} rows, {} created, {} skipped, {} failed in {} ms",
+                report.getTotal(), report.getCreated(), report.getSkipped(), report.getFailed(),
+                report.getElapsedMillis());
+        return report;
+    }
+
+    private void importBatch(List<ImportRow> rows, UserImportReport report,
+                             Set<String> seenUsernames, Set<String> seenEmails) {
+        // Validation and duplicates within the import itself
+        List<ImportRow> candidates = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            RegistrationRequest request = row.request();
+            Set<ConstraintViolation<RegistrationRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                report.add(UserImportResult.failed(row.line(), request.getUsername(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .collect(Collectors.joining(", "))));
+                continue;
+            }
+
+            String username = request.getUsername().trim();
+            String email = request.getEmail().toLowerCase().trim();
+            if (seenUsernames.contains(username) || seenEmails.contains(email)) {
+                report.add(UserImportResult.skipped(row.line(), username, "Duplicate username or email earlier in the import"));
+                continue;
+            }
+            seenUsernames.add(username);
+            seenEmails.add(email);
+            candidates.add(row);
+        }
+
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // Conflicts with existing users: one query each for the whole batch
+        Set<String> existingUsernames = userRepository.findExistingUsernames(candidates.stream()
+                .map(row -> row.request().getUsername().trim()).toList());
+        Set<String> existingEmails = userRepository.findExistingEmails(candidates.stream()
+                .map(row -> row.request().getEmail().toLowerCase().trim()).toList());
+
+        List<PendingUser> pending = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            RegistrationRequest request = row.request();
+            if (existingUsernames.contains(request.getUsername().trim())) {
+                report.add(UserImportResult.skipped(row.line(), request.getUsername(),
+                        "Username already exists: " + request.getUsername()));
+            } else if (existingEmails.contains(request.getEmail().toLowerCase().trim())) {
+                report.add(UserImportResult.skipped(row.line(), request.getUsername(),
+                        "Email already exists: " + request.getEmail()));
+            } else {
+                try {
+                    // Building the entity up front runs the entity-level validation before any hashing
+                    toUser(request, null, null);
+                    pending.add(new PendingUser(row.line(), request));
+                } catch (IllegalArgumentException e) {
+                    report.add(UserImportResult.failed(row.line(), request.getUsername(), e.getMessage()));
+                }
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // BCrypt dominates the cost of an import, so spread it over the hashing pool
+        List<CompletableFuture<String>> hashes = pending.stream()
+                .map(user -> CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(user.request().getPassword()), hashingPool))
+                .toList();
+        List<UuidToLongIdGenerator.UuidLongPair> ids = uuidGenerator.generateUniqueIds(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            pending.get(i).passwordHash = hashes.get(i).join();
+            pending.get(i).idPair = ids.get(i);
+        }
+
+        List<User> created = new ArrayList<>(pending.size());
+        try {
+            List<User> users = pending.stream()
+                    .map(user -> toUser(user.request(), user.passwordHash, user.idPair))
+                    .toList();
+            transactionTemplate.executeWithoutResult(status -> persistBatch(users));
+            for (int i = 0; i < pending.size(); i++) {
+                report.add(UserImportResult.created(pending.get(i).line(), users.get(i).getUsername(), users.get(i).getUserId()));
+            }
+            created.addAll(users);
+        } catch (RuntimeException e) {
+            // Typically a concurrent registration took a username; isolate the offending rows
+            log.warn("Batch insert of {} users failed, retrying row by row: {}", pending.size(), e.getMessage());
+            for (PendingUser user : pending) {
+                try {
+                    User entity = toUser(user.request(), user.passwordHash, user.idPair);
+                    transactionTemplate.executeWithoutResult(status -> persistBatch(List.of(entity)));
+                    report.add(UserImportResult.created(user.line(), entity.getUsername(), entity.getUserId()));
+                    created.add(entity);
+                } catch (RuntimeException rowException) {
+                    report.add(UserImportResult.failed(user.line(), user.request().getUsername(),
+                            "Insert failed: " + rowException.getMessage()));
+                }
+            }
+        }
+
+        publishRegistrationEvents(created);
+    }
+
+    private void persistBatch(List<User> users) {
+        for (User user : users) {
+            entityManager.persist(user);
+        }
+        // With hibernate.jdbc.batch_size and order_inserts this is a handful of multi-row statements
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private User toUser(RegistrationRequest request, String passwordHash, UuidToLongIdGenerator.UuidLongPair idPair) {
+        User user = new User();
+        if (idPair != null) {
+            user.setUserId(idPair.getLongId());
+            user.setUuidString(idPair.getUuidString());
+        }
+        user.setUsername(request.getUsername());
+        user.setEmail(request.getEmail());
+        user.setPasswordHash(passwordHash);
+        user.setBirthDate(request.getBirthDate());
+        user.setGender(request.getGender());
+        user.setHeight(request.getHeight());
+        user.setInitialWeight(request.getInitialWeight());
+        user.setGoalType(request.getGoalType());
+        if (request.getUtcOffsetMinutes() != null) {
+            user.setUtcOffsetMinutes(request.getUtcOffsetMinutes());
+        }
+        roleService.addRoleToUser(user, ERole.ROLE_USER);
+        return user;
+    }
+
+    private void publishRegistrationEvents(List<User> users) {
+        if (eventPublisher == null || users.isEmpty()) {
+            return;
+        }
+        try {
+            List<UserRegisteredEvent> events = users.stream()
+                    .map(user -> UserRegisteredEvent.create(
+                            user.getUserId(),
+                            user.getUsername(),
+                            user.getEmail(),
+                            user.getCreatedAt().toInstant(ZoneOffset.UTC),
+                            user.getGoalType() != null ? user.getGoalType().name() : null,
+                            null,
+                            UserServiceImpl.buildUserPreferencesMap(user)))
+                    .toList();
+            eventPublisher.publishUserRegisteredEvents(events);
+        } catch (Exception e) {
+            // Don't fail the import if event publishing fails
+            log.error("Failed to publish registration events for {} imported users: {}", users.size(), e.getMessage());
+        }
+    }
+
+    private RegistrationRequest parseRow(String line, UserImportFormat format, String[] header) throws IOException {
+        if (format == UserImportFormat.NDJSON) {
+            return objectMapper.readValue(line, RegistrationRequest.class);
+        }
+
+        String[] values = splitCsvLine(line);
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.length; i++) {
+            if (!values[i].isEmpty()) {
+                fields.put(header[i], values[i]);
+            }
+        }
+        // Jackson already knows how to coerce dates, numbers and enums from strings
+        return objectMapper.convertValue(fields, RegistrationRequest.class);
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields and "" escapes.
+     */
+    static String[] splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    private record ImportRow(long line, RegistrationRequest request) {
+    }
+
+    private static final class PendingUser {
+        private final long line;
+        private final RegistrationRequest request;
+        private String passwordHash;
+        private UuidToLongIdGenerator.UuidLongPair idPair;
+
+        private PendingUser(long line, RegistrationRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+
+        long line() {
+            return line;
+        }
+
+        RegistrationRequest request() {
+            return request;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.muscledia.user_service.user.services;
+
+import com.muscledia.user_service.leaderboard.service.GamificationCounters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes tombstoned users (see {@link UserServiceImpl#deleteUser}) and everything that
+ * references them. Each statement deletes at most {@code chunk-size} rows in its own
+ * auto-commit transaction, so no purge holds row locks for long or builds a large undo log.
+ *
+ * The user's badges and battles are the exception: they are deleted in one transaction
+ * together with their share of {@link GamificationCounters}, so the counters are decremented
+ * exactly once. A user holds at most one row per badge and champion, so these stay small.
+ *
+ * Every step is idempotent: a purge interrupted midway, or running on two nodes at
+ * once, simply continues where the other left off.
+ */
+@Component
+@ConditionalOnProperty(value = "muscledia.users.purge.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class UserPurger {
+
+    /**
+     * Tables keyed by user_id, in delete order. The users row goes last.
+     */
+    static final List<String> CHILD_TABLES = List.of(
+            "notifications",
+            "notification_groups",
+            "notification_counters",
+            "champion_defeats",
+            "avatars",
+            "user_roles"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GamificationCounters gamificationCounters;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int usersPerRun;
+    private final Duration gracePeriod;
+    private final AtomicLong pendingUsers = new AtomicLong();
+    private final Timer purgeTimer;
+    private final Counter purgedUsers;
+
+    public UserPurger(JdbcTemplate jdbcTemplate,
+                      PlatformTransactionManager transactionManager,
+                      GamificationCounters gamificationCounters,
+                      MeterRegistry meterRegistry,
+                      @Value("${muscledia.users.purge.chunk-size:1000}") int chunkSize,
+                      @Value("${muscledia.users.purge.users-per-run:100}") int usersPerRun,
+                      @Value("${muscledia.users.purge.grace-period:0s}") Duration gracePeriod) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gamificationCounters = gamificationCounters;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.usersPerRun = usersPerRun;
+        this.gracePeriod = gracePeriod;
+
+        this.purgeTimer = Timer.builder("users.purge.duration")
+                .description("Time to purge one tombstoned user and its child rows")
+                .register(meterRegistry);
+        this.purgedUsers = Counter.builder("users.purge.users")
+                .description("Tombstoned users fully purged")
+                .register(meterRegistry);
+        Gauge.builder("users.purge.pending", pendingUsers, AtomicLong::get)
+                .description("Tombstoned users waiting to be purged")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${muscledia.users.purge.interval:30s}",
+            initialDelayString = "${muscledia.users.purge.initial-delay:1m}")
+    public void purgeDeletedUsers() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        Long pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE deleted_at IS NOT NULL AND deleted_at <= ?", Long.class, cutoff);
+        pendingUsers.set(pending != null ? pending : 0);
+        if (pendingUsers.get() == 0) {
+            return;
+        }
+
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT user_id FROM users WHERE deleted_at IS NOT NULL AND deleted_at <= ? " +
+                        "ORDER BY deleted_at LIMIT " + usersPerRun, Long.class, cutoff);
+
+        for (Long userId : userIds) {
+            try {
+                purgeTimer.record(() -> purgeUser(userId));
+                pendingUsers.decrementAndGet();
+            } catch (Exception e) {
+                // Left tombstoned; the next run retries from where this one stopped
+                log.error("Failed to purge deleted user {}: {}", userId, e.getMessage(), e);
+            }
+        }
+    }
+
+    void purgeUser(Long userId) {
+        Integer counted = transactionTemplate.execute(tx -> {
+            // Serializes purges of the same user on two nodes, so the counters are decremented once
+            jdbcTemplate.queryForList("SELECT user_id FROM users WHERE user_id = ? FOR UPDATE", Long.class, userId);
+            gamificationCounters.removeUser(userId);
+            return countDeleted("user_badges", jdbcTemplate.update("DELETE FROM user_badges WHERE user_id = ?", userId))
+                    + countDeleted("user_champions", jdbcTemplate.update("DELETE FROM user_champions WHERE user_id = ?", userId));
+        });
+        long rows = counted != null ? counted : 0;
+        for (String table : CHILD_TABLES) {
+            rows += deleteInChunks(table, userId);
+        }
+
+        int deleted = jdbcTemplate.update("DELETE FROM users WHERE user_id = ? AND deleted_at IS NOT NULL", userId);
+        if (deleted > 0) {
+            purgedUsers.increment();
+            log.info("Purged deleted user {} ({} child rows)", userId, rows);
+        }
+    }
+
+    private long deleteInChunks(String table, Long userId) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = countDeleted(table,
+                    jdbcTemplate.update("DELETE FROM " + table + " WHERE user_id = ? LIMIT " + chunkSize, userId));
+            total += deleted;
+        } while (deleted == chunkSize);
+        return total;
+    }
+
+    private int countDeleted(String table, int deleted) {
+        Counter.builder("users.purge.rows")
+                .description("Child rows removed while purging deleted users")
+                .tag("table", table)
+                .register(meterRegistry)
+                .increment(deleted);
+        return deleted;
+    }
+}
@@ -1,7 +1,10 @@
 package com.muscledia.user_service.user.services;
 
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.config.cache.CacheNames;
 import com.muscledia.user_service.event.Publisher.UserEventPublisher;
 import com.muscledia.user_service.exception.ResourceNotFoundException;
+import com.muscledia.user_service.leaderboard.service.XpLeaderboard;
 import com.muscledia.user_service.user.dto.UserDataDTO;
 import com.muscledia.user_service.user.entity.ERole;
 import com.muscledia.user_service.user.entity.User;
@@ -11,9 +14,13 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -27,6 +34,8 @@ public class UserServiceImpl implements IUserService {
     private final RoleService roleService;
     private final PasswordEncoder passwordEncoder;
     private final UuidToLongIdGenerator uuidGenerator;
+    private final CacheInvalidator cacheInvalidator;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     // Optional dependency - only injected if Kafka is enabled
     @Autowired(required = false)
@@ -36,11 +45,15 @@ public class UserServiceImpl implements IUserService {
     public UserServiceImpl(UserRepository userRepository,
                            RoleService roleService,
                            PasswordEncoder passwordEncoder,
-                           UuidToLongIdGenerator uuidGenerator) {
+                           UuidToLongIdGenerator uuidGenerator,
+                           CacheInvalidator cacheInvalidator,
+                           ApplicationEventPublisher applicationEventPublisher) {
         this.userRepository = userRepository;
         this.roleService = roleService;
         this.passwordEncoder = passwordEncoder;
         this.uuidGenerator = uuidGenerator;
+        this.cacheInvalidator = cacheInvalidator;
+        this.applicationEventPublisher = applicationEventPublisher;
 
         log.info("UserServiceImpl initialized");
     }
@@ -88,6 +101,7 @@ public class UserServiceImpl implements IUserService {
 
         // Publish registration event
         publishUserRegistrationEvent(savedUser);
+        publishExpChanged(savedUser.getUserId(), savedUser.getTotalExp());
 
         return savedUser;
     }
@@ -104,7 +118,13 @@ public class UserServiceImpl implements IUserService {
             }
         }
 
-        return userRepository.save(user);
+        Long previousExp = userRepository.findTotalExpByUserId(user.getUserId()).orElse(null);
+        User savedUser = userRepository.save(user);
+        invalidateUserCaches(savedUser.getUserId(), savedUser.getUsername());
+        if (!Objects.equals(previousExp, savedUser.getTotalExp())) {
+            publishExpChanged(savedUser.getUserId(), savedUser.getTotalExp());
+        }
+        return savedUser;
     }
 
     /**
@@ -150,8 +170,14 @@ public class UserServiceImpl implements IUserService {
         Map<String, Object> changes = trackUserChanges(existingUser, user);
 
         // Save the updated user
+        String previousUsername = existingUser.getUsername();
+        Long previousExp = existingUser.getTotalExp();
         User updatedUser = userRepository.save(user);
         log.info("User updated successfully: {}", updatedUser.getUsername());
+        invalidateUserCaches(updatedUser.getUserId(), previousUsername, updatedUser.getUsername());
+        if (!Objects.equals(previousExp, updatedUser.getTotalExp())) {
+            publishExpChanged(updatedUser.getUserId(), updatedUser.getTotalExp());
+        }
 
         // Publish profile update event if there were significant changes
         if (!changes.isEmpty()) {
@@ -231,7 +257,7 @@ public class UserServiceImpl implements IUserService {
     /**
      * Build user preferences map for event publishing
      */
-    private Map<String, Object> buildUserPreferencesMap(User user) {
+    static Map<String, Object> buildUserPreferencesMap(User user) {
         Map<String, Object> userPreferences = new HashMap<>();
 
         if (user.getBirthDate() != null) {
@@ -298,6 +324,51 @@ public class UserServiceImpl implements IUserService {
         return changes;
     }
 
+    @Override
+    @Transactional
+    public long addExp(Long userId, long delta) {
+        // Incremented in the database, so concurrent awards are never lost
+        if (userRepository.addExp(userId, delta) == 0) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        invalidateUserCaches(userId, user.getUsername());
+        publishExpChanged(userId, user.getTotalExp());
+        return user.getTotalExp();
+    }
+
+    /**
+     * Once committed, move the user on this node's XP leaderboard and have the other nodes
+     * re-read the user's exp. A null {@code totalExp} takes the user off the leaderboard.
+     */
+    private void publishExpChanged(Long userId, Long totalExp) {
+        UserExpChangedEvent event = new UserExpChangedEvent(userId, totalExp);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applicationEventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            applicationEventPublisher.publishEvent(event);
+        }
+        cacheInvalidator.invalidateOtherNodes(XpLeaderboard.REGION, userId);
+    }
+
+    /**
+     * Evict the user's cached data on this node and, once committed, on every other node
+     */
+    private void invalidateUserCaches(Long userId, String... usernames) {
+        cacheInvalidator.invalidate(CacheNames.USER_DATA, userId);
+        for (String username : usernames) {
+            if (username != null) {
+                cacheInvalidator.invalidate(CacheNames.USER_DATA_BY_USERNAME, username);
+            }
+        }
+    }
+
     /**
      * Convert LocalDateTime to Instant for event publishing
      */
@@ -310,7 +381,10 @@ public class UserServiceImpl implements IUserService {
 
 
     @Override
-    @Transactional(readOnly = true)
+    // Not read-only, so the fill reads the primary: after an update the other nodes' next
+    // miss would otherwise cache a lagging replica's copy for the whole TTL
+    @Transactional
+    @Cacheable(cacheNames = CacheNames.USER_DATA, key = "#userId.toString()")
     public UserDataDTO getUserData(Long userId) {
         log.info("Fetching user data for userId: {}", userId);
 
@@ -328,7 +402,9 @@ public class UserServiceImpl implements IUserService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    // Reads the primary, like getUserData
+    @Transactional
+    @Cacheable(cacheNames = CacheNames.USER_DATA_BY_USERNAME, key = "#username")
     public UserDataDTO getUserDataByUsername(String username) {
         log.info("Fetching user data for username: {}", username);
 
@@ -371,27 +447,39 @@ public class UserServiceImpl implements IUserService {
 
     @Override
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return userRepository.countByUsernameIncludingDeleted(username) > 0;
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userRepository.countByEmailIncludingDeleted(email) > 0;
     }
 
     public boolean existsByUuid(String uuidString) {
         return userRepository.existsByUuidString(uuidString);
     }
 
+    /**
+     * Tombstone the user. The row, its avatar, badges, champions and notifications
+     * are removed in bounded chunks by {@link UserPurger}.
+     */
     @Override
     @Transactional
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        userRepository.findById(userId).ifPresent(this::tombstone);
     }
 
     @Transactional
     public void deleteUserByUuid(String uuidString) {
-        userRepository.deleteByUuidString(uuidString);
+        userRepository.findByUuidString(uuidString).ifPresent(this::tombstone);
+    }
+
+    private void tombstone(User user) {
+        userRepository.markDeleted(user.getUserId(), LocalDateTime.now());
+        invalidateUserCaches(user.getUserId(), user.getUsername());
+        cacheInvalidator.invalidate(ActiveUserIdCache.REGION, user.getUserId());
+        publishExpChanged(user.getUserId(), null);
+        log.info("User {} (ID: {}) marked deleted", user.getUsername(), user.getUserId());
     }
 
     @Transactional
@@ -0,0 +1,242 @@
+package com.muscledia.user_service.user.services;
+
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.config.cache.CacheNames;
+import com.muscledia.user_service.leaderboard.service.XpLeaderboard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Applies many completed workouts to users' streaks and exp in one transaction: a lookup of
+ * the event IDs already processed, a locking read of every affected user, the new streaks
+ * and totals computed in memory, then one JDBC batch of user updates and one of processed
+ * event IDs.
+ *
+ * Users are locked in user ID order, so two writers never deadlock, and their new values
+ * are computed from what was read under that lock, with each workout counted on its day in
+ * the user's local time (see {@link StreakRollover}). Workouts of unknown or deleted users
+ * are dropped. If another consumer commits the same event first (after a rebalance), the
+ * processed event insert fails, the transaction rolls back and the retried batch skips it.
+ */
+@Component
+@Slf4j
+public class WorkoutProgressWriter {
+
+    private static final String UPDATE_USER_SQL =
+            "UPDATE users SET current_streak = ?, lapsed_streak = ?, last_workout_date = ?, total_exp = ? WHERE user_id = ?";
+    private static final String INSERT_PROCESSED_SQL =
+            "INSERT INTO processed_events (event_id, processed_at) VALUES (?, ?)";
+    private static final int CLEANUP_BATCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration processedRetention;
+    private final Counter duplicatesCounter;
+    private final Counter droppedCounter;
+
+    public WorkoutProgressWriter(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 CacheInvalidator cacheInvalidator,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${muscledia.events.processed.retention:7d}") Duration processedRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.processedRetention = processedRetention;
+        this.duplicatesCounter = Counter.builder("workouts.completed.duplicates")
+                .description("Completed workouts skipped because their event was already processed")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("workouts.completed.dropped")
+                .description("Completed workouts dropped because their user does not exist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of workouts applied
+     */
+    public int write(List<CompletedWorkout> workouts) {
+        if (workouts.isEmpty()) {
+            return 0;
+        }
+        Integer applied = transactionTemplate.execute(tx -> apply(workouts));
+        return applied != null ? applied : 0;
+    }
+
+    /**
+     * Streak after a workout on {@code day}: continued on the next day, unchanged on the same
+     * day, restarted after a gap. A workout reported for a day before the last one counted
+     * (a late event) leaves the streak as it is.
+     *
+     * A workout that arrives after {@link StreakRollover} reset the streak, for the day that
+     * had been missed, continues the streak the rollover put aside as lapsed.
+     */
+    static Progress advance(Progress progress, LocalDate day) {
+        LocalDate last = progress.lastWorkoutDate();
+        if (last == null || day.isAfter(last.plusDays(1))) {
+            return new Progress(1, 0, day, progress.totalExp());
+        }
+        if (day.equals(last.plusDays(1))) {
+            int streak = progress.streak() > 0 ? progress.streak() : progress.lapsedStreak();
+            return new Progress(streak + 1, 0, day, progress.totalExp());
+        }
+        return progress;
+    }
+
+    @Scheduled(fixedDelayString = "${muscledia.events.processed.cleanup-interval:1h}")
+    public void deleteExpiredProcessedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(processedRetention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                    "DELETE FROM processed_events WHERE processed_at < ? LIMIT " + CLEANUP_BATCH_SIZE, cutoff);
+            total += deleted;
+        } while (deleted == CLEANUP_BATCH_SIZE);
+        if (total > 0) {
+            log.debug("Deleted {} processed event IDs older than {}", total, cutoff);
+        }
+    }
+
+    private int apply(List<CompletedWorkout> workouts) {
+        // Redeliveries within the poll, then those already committed by an earlier one
+        Map<String, CompletedWorkout> byEventId = new LinkedHashMap<>();
+        workouts.forEach(workout -> byEventId.putIfAbsent(workout.eventId(), workout));
+        byEventId.keySet().removeAll(processedEventIds(byEventId.keySet()));
+        duplicatesCounter.increment(workouts.size() - byEventId.size());
+        if (byEventId.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<CompletedWorkout>> perUser = byEventId.values().stream()
+                .collect(Collectors.groupingBy(CompletedWorkout::userId, TreeMap::new, Collectors.toList()));
+        Map<Long, UserRow> users = lockUsers(perUser.keySet());
+
+        List<UserRow> updated = new ArrayList<>(users.size());
+        List<CompletedWorkout> applied = new ArrayList<>(byEventId.size());
+        perUser.forEach((userId, userWorkouts) -> {
+            UserRow user = users.get(userId);
+            if (user == null) {
+                droppedCounter.increment(userWorkouts.size());
+                return;
+            }
+            Progress progress = user.progress();
+            userWorkouts.sort(Comparator.comparing(CompletedWorkout::completedAt));
+            for (CompletedWorkout workout : userWorkouts) {
+                progress = advance(progress, LocalDate.ofInstant(workout.completedAt(), user.zone()));
+                progress = new Progress(progress.streak(), progress.lapsedStreak(), progress.lastWorkoutDate(),
+                        Math.max(0, progress.totalExp() + workout.exp()));
+            }
+            updated.add(new UserRow(userId, user.username(), user.zone(), progress));
+            applied.addAll(userWorkouts);
+        });
+        if (applied.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_USER_SQL, updated, updated.size(), (ps, user) -> {
+            ps.setInt(1, user.progress().streak());
+            ps.setInt(2, user.progress().lapsedStreak());
+            ps.setDate(3, Date.valueOf(user.progress().lastWorkoutDate()));
+            ps.setLong(4, user.progress().totalExp());
+            ps.setLong(5, user.userId());
+        });
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_PROCESSED_SQL, applied, applied.size(), (ps, workout) -> {
+            ps.setString(1, workout.eventId());
+            ps.setObject(2, now);
+        });
+
+        updated.forEach(this::publishChanged);
+        return applied.size();
+    }
+
+    private Set<String> processedEventIds(Collection<String> eventIds) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT event_id FROM processed_events WHERE event_id IN (" +
+                        String.join(",", Collections.nCopies(eventIds.size(), "?")) + ")",
+                String.class, eventIds.toArray()));
+    }
+
+    private Map<Long, UserRow> lockUsers(Collection<Long> userIds) {
+        Map<Long, UserRow> users = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT user_id, username, utc_offset_minutes, COALESCE(current_streak, 0) AS current_streak, lapsed_streak, " +
+                        "last_workout_date, COALESCE(total_exp, 0) AS total_exp FROM users WHERE user_id IN (" +
+                        String.join(",", Collections.nCopies(userIds.size(), "?")) + ") " +
+                        "AND deleted_at IS NULL ORDER BY user_id FOR UPDATE",
+                (RowCallbackHandler) rs -> {
+                    Date lastWorkout = rs.getDate("last_workout_date");
+                    users.put(rs.getLong("user_id"), new UserRow(rs.getLong("user_id"), rs.getString("username"),
+                            ZoneOffset.ofTotalSeconds(rs.getInt("utc_offset_minutes") * 60),
+                            new Progress(rs.getInt("current_streak"), rs.getInt("lapsed_streak"),
+                                    lastWorkout != null ? lastWorkout.toLocalDate() : null,
+                                    rs.getLong("total_exp"))));
+                },
+                userIds.toArray());
+        return users;
+    }
+
+    /**
+     * Same as a single-user change through {@link UserServiceImpl}: the user's caches are
+     * evicted everywhere and the XP leaderboards move, once committed.
+     */
+    private void publishChanged(UserRow user) {
+        cacheInvalidator.invalidate(CacheNames.USER_DATA, user.userId());
+        cacheInvalidator.invalidate(CacheNames.USER_DATA_BY_USERNAME, user.username());
+
+        UserExpChangedEvent event = new UserExpChangedEvent(user.userId(), user.progress().totalExp());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+        cacheInvalidator.invalidateOtherNodes(XpLeaderboard.REGION, user.userId());
+    }
+
+    /**
+     * @param lapsedStreak the streak before the last rollover reset it; only used while
+     *                     {@code streak} is 0
+     */
+    record Progress(int streak, int lapsedStreak, LocalDate lastWorkoutDate, long totalExp) {
+    }
+
+    private record UserRow(Long userId, String username, ZoneOffset zone, Progress progress) {
+    }
+}
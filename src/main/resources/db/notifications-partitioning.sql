@@ -0,0 +1,35 @@
+-- Converts notifications to monthly RANGE COLUMNS partitions on created_at, so expired
+-- months can be removed with DROP PARTITION (muscledia.notifications.retention.partitioning).
+--
+-- Run once, during a maintenance window: the ALTERs rebuild the table.
+-- Afterwards set NOTIFICATION_PARTITIONING_ENABLED=true; the service then adds the coming
+-- months by splitting p_future and drops partitions past the longest retention.
+
+-- 1. Partitioned InnoDB tables cannot have foreign keys. Look up the name of the
+--    notifications -> users key and drop it. Rows of deleted users are removed by the
+--    user purge job, not by the database. Hibernate's schema update will log a warning at
+--    startup when it fails to recreate the key; that is expected.
+SELECT constraint_name
+FROM information_schema.referential_constraints
+WHERE constraint_schema = DATABASE() AND table_name = 'notifications';
+
+-- ALTER TABLE notifications DROP FOREIGN KEY <constraint_name>;
+
+-- 2. Every unique key, the primary key included, must contain the partitioning column.
+UPDATE notifications SET created_at = NOW() WHERE created_at IS NULL;
+
+ALTER TABLE notifications
+    MODIFY created_at DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (notification_id, created_at);
+
+-- 3. Partition. p_history takes everything before the first monthly partition and is
+--    dropped as a whole once it is past retention. Adjust the months to the current date;
+--    partition pYYYYMM holds month YYYY-MM.
+ALTER TABLE notifications
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_history VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
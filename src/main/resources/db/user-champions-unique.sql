@@ -0,0 +1,33 @@
+-- Adds the (user_id, champion_id) unique key that battle starts rely on
+-- (UserChampionRepository#insertIfAbsent). Hibernate's schema update cannot add it while
+-- duplicate battles exist, so merge those first.
+--
+-- Run once, before deploying the version that expects uk_user_champion.
+
+-- 1. Fold every duplicate into the oldest battle of its pair, keeping the highest count
+--    and the earliest defeat.
+UPDATE user_champions keep
+    JOIN (SELECT user_id,
+                 champion_id,
+                 MIN(user_champion_id)       AS keep_id,
+                 MAX(current_exercise_count) AS exercise_count,
+                 MAX(defeated)               AS defeated,
+                 MIN(defeat_date)            AS defeat_date
+          FROM user_champions
+          GROUP BY user_id, champion_id
+          HAVING COUNT(*) > 1) dup ON keep.user_champion_id = dup.keep_id
+SET keep.current_exercise_count = dup.exercise_count,
+    keep.defeated               = dup.defeated,
+    keep.defeat_date            = dup.defeat_date;
+
+-- 2. Remove the rest.
+DELETE newer
+FROM user_champions newer
+         JOIN user_champions older
+              ON older.user_id = newer.user_id
+                  AND older.champion_id = newer.champion_id
+                  AND older.user_champion_id < newer.user_champion_id;
+
+-- 3. Add the key.
+ALTER TABLE user_champions
+    ADD CONSTRAINT uk_user_champion UNIQUE (user_id, champion_id);
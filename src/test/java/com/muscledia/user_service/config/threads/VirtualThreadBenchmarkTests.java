@@ -0,0 +1,89 @@
+package com.muscledia.user_service.config.threads;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Platform thread pool vs virtual threads for blocking, JDBC-like work at high concurrency.
+ * Opt-in because it takes several seconds: {@code mvn test -Dtest=VirtualThreadBenchmarkTests -Dbenchmark=true}.
+ * Tune with {@code -Dbenchmark.tasks} and {@code -Dbenchmark.latencyMs}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmarkTests {
+
+    /** Tomcat's default {@code server.tomcat.threads.max}. */
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    private final int tasks = Integer.getInteger("benchmark.tasks", 5_000);
+    private final long latencyMs = Long.getLong("benchmark.latencyMs", 10);
+
+    @Test
+    void compareExecutionModels() throws Exception {
+        Duration platform = run(Executors.newFixedThreadPool(PLATFORM_POOL_SIZE), this::blockingCall);
+        Duration virtual = run(Executors.newVirtualThreadPerTaskExecutor(), this::blockingCall);
+
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(1), 100, null);
+        monitor.start();
+        Duration pinned;
+        try {
+            pinned = run(Executors.newVirtualThreadPerTaskExecutor(), this::blockingCallInsideMonitor);
+            Thread.sleep(2_000); // let the JFR stream flush
+        } finally {
+            monitor.close();
+        }
+
+        System.out.printf("%n%d tasks blocking %d ms each%n", tasks, latencyMs);
+        System.out.printf("  platform pool (%d threads)        : %6d ms%n", PLATFORM_POOL_SIZE, platform.toMillis());
+        System.out.printf("  virtual threads                    : %6d ms%n", virtual.toMillis());
+        System.out.printf("  virtual threads, synchronized block: %6d ms%n", pinned.toMillis());
+        monitor.getReport().forEach(site -> System.out.printf("  pinned %5d x at %s [%s]%n",
+                site.count(), site.site(), site.source()));
+
+        assertThat(monitor.getReport())
+                .anySatisfy(site -> assertThat(site.stackTrace())
+                        .anyMatch(frame -> frame.contains("blockingCallInsideMonitor")));
+    }
+
+    private Duration run(ExecutorService executor, Runnable task) throws Exception {
+        long start = System.nanoTime();
+        try (executor) {
+            List<Future<?>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /** Stands in for a query round trip; parking a virtual thread frees its carrier. */
+    private void blockingCall() {
+        sleep();
+    }
+
+    /** The same call inside {@code synchronized}, which pins the carrier thread on Java 21. */
+    private void blockingCallInsideMonitor() {
+        synchronized (new Object()) {
+            sleep();
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.muscledia.user_service.event.Consumer;
+
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.event.CacheInvalidationEvent;
+import com.muscledia.user_service.event.KafkaConsumerConfig;
+import com.muscledia.user_service.event.KafkaProducerConfig;
+import com.muscledia.user_service.event.RetryTopics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the cache invalidation listener against an embedded broker, on the topic as this
+ * service declares it, with the local caches mocked.
+ */
+@SpringBootTest(
+        classes = CacheInvalidationListenerTests.TestConfig.class,
+        properties = {
+                "kafka.events.enabled=true",
+                "spring.application.name=user-service-test",
+                "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}"
+        })
+@EmbeddedKafka
+@DirtiesContext
+class CacheInvalidationListenerTests {
+
+    private static final String TOPIC = "user-cache-invalidations";
+    private static final String NODE = "node-a";
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @MockitoBean
+    private CacheInvalidator cacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        when(cacheInvalidator.getNodeId()).thenReturn(NODE);
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            ContainerTestUtils.waitForAssignment(container, 3);
+        }
+    }
+
+    @Test
+    void appliesInvalidationsFromOtherNodesOnEveryPartitionWithoutAConsumerGroup() throws Exception {
+        // Keys spread over the topic's three partitions
+        for (int user = 1; user <= 12; user++) {
+            String key = String.valueOf(user);
+            // The seek to the end is applied on the first poll, so a send can land before it
+            await().atMost(Duration.ofSeconds(30)).pollInterval(Duration.ofMillis(500)).untilAsserted(() -> {
+                send(key, "node-b");
+                verify(cacheInvalidator, atLeastOnce()).evictLocal("userData", key);
+            });
+        }
+
+        try (AdminClient admin = AdminClient.create(
+                Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+            assertThat(admin.listConsumerGroups().all().get())
+                    .extracting(ConsumerGroupListing::groupId)
+                    .noneMatch(groupId -> groupId.contains("cache"));
+        }
+    }
+
+    @Test
+    void skipsInvalidationsThisNodeIssued() {
+        // Same partition, so the marker is applied after the own invalidation was consumed
+        await().atMost(Duration.ofSeconds(30)).pollInterval(Duration.ofMillis(500)).untilAsserted(() -> {
+            send(0, "own", NODE);
+            send(0, "marker", "node-b");
+            verify(cacheInvalidator, atLeastOnce()).evictLocal("userData", "marker");
+        });
+
+        verify(cacheInvalidator, never()).evictLocal(any(), eq("own"));
+    }
+
+    private void send(String key, String originNodeId) {
+        send(null, key, originNodeId);
+    }
+
+    private void send(Integer partition, String key, String originNodeId) {
+        CacheInvalidationEvent event = CacheInvalidationEvent.builder()
+                .region("userData").key(key).originNodeId(originNodeId).issuedAt(Instant.now())
+                .build();
+        kafkaTemplate.send(TOPIC, partition, event.recordKey(), event);
+    }
+
+    @Configuration
+    @EnableKafka
+    @ImportAutoConfiguration(KafkaAutoConfiguration.class)
+    @Import({KafkaProducerConfig.class, KafkaConsumerConfig.class, RetryTopics.class, CacheInvalidationListener.class})
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.muscledia.user_service.event.Consumer;
+
+import com.muscledia.user_service.event.KafkaConsumerConfig;
+import com.muscledia.user_service.event.KafkaProducerConfig;
+import com.muscledia.user_service.event.NotificationRequestEvent;
+import com.muscledia.user_service.event.RetryTopics;
+import com.muscledia.user_service.notification.entity.NotificationType;
+import com.muscledia.user_service.notification.service.NotificationBatchWriter;
+import com.muscledia.user_service.notification.service.NotificationDraft;
+import com.muscledia.user_service.user.services.ActiveUserIdCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the notification request listener against an embedded broker. The database side is
+ * mocked: the batch writer records what it was asked to insert.
+ */
+@SpringBootTest(
+        classes = NotificationRequestListenerTests.TestConfig.class,
+        properties = {
+                "kafka.events.enabled=true",
+                "spring.application.name=user-service-test",
+                "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+                "kafka.retry.delays=1s,1s,1s"
+        })
+@EmbeddedKafka(partitions = 1, topics = {NotificationRequestListenerTests.TOPIC, NotificationRequestListenerTests.DLT})
+@DirtiesContext
+class NotificationRequestListenerTests {
+
+    static final String TOPIC = "notification-requests";
+    static final String DLT = "notification-requests.DLT";
+    private static final Long KNOWN_USER = 1L;
+    private static final Long OTHER_KNOWN_USER = 2L;
+    private static final Long UNKNOWN_USER = 99L;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @MockitoBean
+    private NotificationBatchWriter batchWriter;
+
+    @MockitoBean
+    private ActiveUserIdCache activeUserIds;
+
+    private final List<NotificationDraft> written = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        written.clear();
+        when(activeUserIds.filterActive(anyCollection())).thenAnswer(invocation -> {
+            Set<Long> active = new HashSet<>(invocation.<Collection<Long>>getArgument(0));
+            active.retainAll(Set.of(KNOWN_USER, OTHER_KNOWN_USER));
+            return active;
+        });
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<NotificationDraft> drafts = invocation.getArgument(0);
+            written.addAll(drafts);
+            return drafts.size();
+        });
+    }
+
+    @Test
+    void insertsRequestsAndDeadLettersUnknownUsers() {
+        send(request(KNOWN_USER, "BADGE", "first"));
+        send(request(UNKNOWN_USER, "BADGE", "nobody"));
+        send(request(OTHER_KNOWN_USER, "QUEST", "second"));
+
+        await().atMost(Duration.ofSeconds(20)).untilAsserted(() ->
+                assertThat(written).extracting(NotificationDraft::message).contains("first", "second"));
+        assertThat(written).extracting(NotificationDraft::userId).doesNotContain(UNKNOWN_USER);
+        assertThat(written).filteredOn(draft -> draft.message().equals("second"))
+                .extracting(NotificationDraft::type).containsExactly(NotificationType.QUEST);
+
+        assertThat(deadLetters(1)).anySatisfy(value -> assertThat(value).contains("nobody"));
+    }
+
+    @Test
+    void poisonMessagesGoToDeadLetterTopicAndTheRestIsWritten() {
+        send(request(KNOWN_USER, "BADGE", "before-poison"));
+        kafkaTemplate.send(new ProducerRecord<>(TOPIC, "{not json"));
+        send(request(KNOWN_USER, "NOT_A_TYPE", "bad-type"));
+        send(request(KNOWN_USER, "FRIEND", "after-poison"));
+
+        await().atMost(Duration.ofSeconds(20)).untilAsserted(() ->
+                assertThat(written).extracting(NotificationDraft::message).contains("before-poison", "after-poison"));
+        assertThat(written).extracting(NotificationDraft::message).doesNotContain("bad-type");
+
+        List<String> deadLetters = deadLetters(2);
+        assertThat(deadLetters).anySatisfy(value -> assertThat(value).contains("{not json"));
+        assertThat(deadLetters).anySatisfy(value -> assertThat(value).contains("bad-type"));
+    }
+
+    @Test
+    void failedBatchIsRetriedFromTheRetryTopic() {
+        AtomicBoolean failed = new AtomicBoolean();
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("database unavailable");
+            }
+            List<NotificationDraft> drafts = invocation.getArgument(0);
+            written.addAll(drafts);
+            return drafts.size();
+        });
+
+        send(request(KNOWN_USER, "CHAMPION", "retried"));
+
+        await().atMost(Duration.ofSeconds(20)).untilAsserted(() ->
+                assertThat(written).extracting(NotificationDraft::message).containsOnlyOnce("retried"));
+        assertThat(failed).isTrue();
+    }
+
+    @Test
+    void requestsThatKeepFailingEndUpInTheDeadLetterTopic() {
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<NotificationDraft> drafts = invocation.getArgument(0);
+            if (drafts.stream().anyMatch(draft -> draft.message().equals("always-failing"))) {
+                throw new IllegalStateException("database unavailable");
+            }
+            written.addAll(drafts);
+            return drafts.size();
+        });
+
+        send(request(KNOWN_USER, "CHAMPION", "always-failing"));
+        send(request(KNOWN_USER, "CHAMPION", "not-held-up"));
+
+        await().atMost(Duration.ofSeconds(20)).untilAsserted(() ->
+                assertThat(written).extracting(NotificationDraft::message).contains("not-held-up"));
+        // Three retry topics at 1s each
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(deadLetters(1)).anySatisfy(value -> assertThat(value).contains("always-failing")));
+        assertThat(written).extracting(NotificationDraft::message).doesNotContain("always-failing");
+    }
+
+    private void send(NotificationRequestEvent event) {
+        kafkaTemplate.send(TOPIC, String.valueOf(event.getUserId()), event);
+    }
+
+    private static NotificationRequestEvent request(Long userId, String type, String message) {
+        return NotificationRequestEvent.builder().userId(userId).type(type).message(message).build();
+    }
+
+    /**
+     * Waits until the dead letter topic holds {@code expected} records, then returns their values.
+     */
+    private List<String> deadLetters(int expected) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dlt-reader-" + System.nanoTime(), "false", broker);
+        List<String> values = new ArrayList<>();
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(DLT).stream()
+                    .map(info -> new TopicPartition(DLT, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            await().atMost(Duration.ofSeconds(20)).until(() -> {
+                consumer.poll(Duration.ofMillis(500)).forEach(record -> values.add(record.value()));
+                return values.size() >= expected;
+            });
+        }
+        return values;
+    }
+
+    @Configuration
+    @EnableKafka
+    @ImportAutoConfiguration(KafkaAutoConfiguration.class)
+    @Import({KafkaProducerConfig.class, KafkaConsumerConfig.class, RetryTopics.class, NotificationRequestListener.class})
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.muscledia.user_service.event.Consumer;
+
+import com.muscledia.user_service.event.KafkaConsumerConfig;
+import com.muscledia.user_service.event.KafkaProducerConfig;
+import com.muscledia.user_service.event.RetryTopics;
+import com.muscledia.user_service.event.WorkoutCompletedEvent;
+import com.muscledia.user_service.user.services.CompletedWorkout;
+import com.muscledia.user_service.user.services.WorkoutProgressWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the completed workout listener against an embedded broker with the progress writer
+ * mocked: it records the workouts it was asked to write, in order.
+ */
+@SpringBootTest(
+        classes = WorkoutCompletedListenerTests.TestConfig.class,
+        properties = {
+                "kafka.events.enabled=true",
+                "spring.application.name=user-service-test",
+                "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+                "kafka.consumers.workout-completed.max-retry-time=10s",
+                // Long enough that a workout sent to the retry topics would come back after the next one
+                "kafka.retry.delays=5s,5s,5s"
+        })
+@EmbeddedKafka(partitions = 1, topics = {WorkoutCompletedListenerTests.TOPIC, WorkoutCompletedListenerTests.DLT})
+@DirtiesContext
+class WorkoutCompletedListenerTests {
+
+    static final String TOPIC = "workout-completed";
+    static final String DLT = "workout-completed.DLT";
+    private static final Long USER = 1L;
+    private static final Instant DAY_ONE = Instant.parse("2025-06-01T18:00:00Z");
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @MockitoBean
+    private WorkoutProgressWriter progressWriter;
+
+    private final List<String> written = new CopyOnWriteArrayList<>();
+
+    @Test
+    void workoutThatFailsOnceIsStillCountedBeforeTheUsersNextOne() {
+        AtomicBoolean failed = new AtomicBoolean();
+        when(progressWriter.write(anyList())).thenAnswer(invocation -> {
+            List<CompletedWorkout> workouts = invocation.getArgument(0);
+            if (workouts.stream().anyMatch(workout -> workout.eventId().equals("day-1"))
+                    && failed.compareAndSet(false, true)) {
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            workouts.forEach(workout -> written.add(workout.eventId()));
+            return workouts.size();
+        });
+
+        send("day-1", DAY_ONE);
+        send("day-2", DAY_ONE.plus(Duration.ofDays(1)));
+
+        // The streak counts day-1 then day-2; the other way round day-2 would restart it
+        await().atMost(Duration.ofSeconds(30)).untilAsserted(() ->
+                assertThat(written).containsExactly("day-1", "day-2"));
+        assertThat(failed).isTrue();
+    }
+
+    private void send(String eventId, Instant completedAt) {
+        kafkaTemplate.send(TOPIC, String.valueOf(USER), WorkoutCompletedEvent.builder()
+                .eventId(eventId).userId(USER).workoutId("w-" + eventId).expEarned(10L).completedAt(completedAt)
+                .build());
+    }
+
+    @Configuration
+    @EnableKafka
+    @ImportAutoConfiguration(KafkaAutoConfiguration.class)
+    @Import({KafkaProducerConfig.class, KafkaConsumerConfig.class, RetryTopics.class, WorkoutCompletedListener.class})
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
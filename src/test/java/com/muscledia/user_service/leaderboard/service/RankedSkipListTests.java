@@ -0,0 +1,127 @@
+package com.muscledia.user_service.leaderboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks ranks and ranges against a plain sorted list. Wrong spans show up as wrong ranks,
+ * so every entry's rank is checked after each batch of random changes.
+ */
+class RankedSkipListTests {
+
+    private static final Comparator<RankedSkipList.Entry> ORDER =
+            Comparator.comparingLong(RankedSkipList.Entry::score).reversed()
+                    .thenComparingLong(RankedSkipList.Entry::userId);
+
+    @Test
+    void ranksHighestScoreFirstAndLowerUserIdFirstOnTies() {
+        RankedSkipList list = new RankedSkipList();
+        list.insert(3, 50);
+        list.insert(1, 10);
+        list.insert(2, 50);
+        list.insert(4, 70);
+
+        assertThat(list.range(1, 10)).containsExactly(
+                new RankedSkipList.Entry(1, 4, 70),
+                new RankedSkipList.Entry(2, 2, 50),
+                new RankedSkipList.Entry(3, 3, 50),
+                new RankedSkipList.Entry(4, 1, 10));
+        assertThat(list.rankOf(3, 50)).isEqualTo(3);
+        assertThat(list.size()).isEqualTo(4);
+    }
+
+    @Test
+    void unknownEntriesHaveNoRankAndCannotBeRemoved() {
+        RankedSkipList list = new RankedSkipList();
+        list.insert(1, 10);
+
+        assertThat(list.rankOf(1, 11)).isZero();
+        assertThat(list.rankOf(2, 10)).isZero();
+        assertThat(list.remove(1, 11)).isFalse();
+        assertThat(list.remove(2, 10)).isFalse();
+        assertThat(list.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rangeStopsAtTheEndAndIsEmptyOutsideTheList() {
+        RankedSkipList list = new RankedSkipList();
+        for (long userId = 1; userId <= 5; userId++) {
+            list.insert(userId, userId * 10);
+        }
+
+        assertThat(list.range(4, 10)).extracting(RankedSkipList.Entry::userId).containsExactly(2L, 1L);
+        assertThat(list.range(6, 10)).isEmpty();
+        assertThat(list.range(0, 10)).isEmpty();
+        assertThat(new RankedSkipList().range(1, 10)).isEmpty();
+    }
+
+    @Test
+    void removingEveryEntryLeavesAnEmptyListThatStillWorks() {
+        RankedSkipList list = new RankedSkipList();
+        for (long userId = 1; userId <= 200; userId++) {
+            list.insert(userId, userId % 7);
+        }
+        for (long userId = 1; userId <= 200; userId++) {
+            assertThat(list.remove(userId, userId % 7)).isTrue();
+        }
+
+        assertThat(list.size()).isZero();
+        assertThat(list.range(1, 10)).isEmpty();
+
+        list.insert(9, 90);
+        assertThat(list.rankOf(9, 90)).isEqualTo(1);
+    }
+
+    @Test
+    void matchesASortedListUnderRandomInsertsUpdatesAndRemovals() {
+        Random random = new Random(42);
+        RankedSkipList list = new RankedSkipList();
+        Map<Long, Long> scores = new HashMap<>();
+
+        for (int round = 0; round < 20; round++) {
+            for (int change = 0; change < 500; change++) {
+                long userId = random.nextInt(2000);
+                Long previous = scores.get(userId);
+                if (previous != null) {
+                    assertThat(list.remove(userId, previous)).isTrue();
+                    scores.remove(userId);
+                }
+                // Few distinct scores, so ties are common
+                if (random.nextInt(4) > 0) {
+                    long score = random.nextInt(100);
+                    list.insert(userId, score);
+                    scores.put(userId, score);
+                }
+            }
+
+            List<RankedSkipList.Entry> expected = expected(scores);
+            assertThat(list.size()).isEqualTo(expected.size());
+            assertThat(list.range(1, expected.size())).isEqualTo(expected);
+            for (RankedSkipList.Entry entry : expected) {
+                assertThat(list.rankOf(entry.userId(), entry.score())).isEqualTo(entry.rank());
+            }
+            int from = 1 + random.nextInt(Math.max(1, expected.size()));
+            assertThat(list.range(from, 25))
+                    .isEqualTo(expected.subList(from - 1, Math.min(expected.size(), from - 1 + 25)));
+        }
+    }
+
+    private static List<RankedSkipList.Entry> expected(Map<Long, Long> scores) {
+        List<RankedSkipList.Entry> sorted = new ArrayList<>();
+        scores.forEach((userId, score) -> sorted.add(new RankedSkipList.Entry(0, userId, score)));
+        sorted.sort(ORDER);
+        List<RankedSkipList.Entry> ranked = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            ranked.add(new RankedSkipList.Entry(i + 1, sorted.get(i).userId(), sorted.get(i).score()));
+        }
+        return ranked;
+    }
+}
@@ -0,0 +1,127 @@
+package com.muscledia.user_service.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the partition manager with a mocked JdbcTemplate: partitioning is MySQL only, so
+ * the tests check the statements it issues and the order it issues them in.
+ */
+class NotificationPartitionManagerTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final UnreadNotificationCounter unreadCounter = mock(UnreadNotificationCounter.class);
+    private final NotificationRetentionProperties properties = new NotificationRetentionProperties();
+    private final NotificationPartitionManager manager =
+            new NotificationPartitionManager(jdbcTemplate, unreadCounter, properties);
+
+    @Test
+    void dropsExpiredPartitionsAndRecountsTheirOwnersCountersAfterwards() {
+        YearMonth expired = YearMonth.now().minusMonths(8);
+        String expiredName = partitionName(expired);
+        partitions(List.of(
+                new Object[]{expiredName, bound(expired), 1200L},
+                new Object[]{partitionName(YearMonth.now()), bound(YearMonth.now()), 50L},
+                new Object[]{NotificationPartitionManager.FUTURE_PARTITION, "MAXVALUE", 0L}));
+        when(jdbcTemplate.queryForList(eq("SELECT DISTINCT user_id FROM notifications PARTITION (" + expiredName + ") " +
+                "WHERE is_read = FALSE"), eq(Long.class))).thenReturn(List.of(3L, 7L));
+
+        long dropped = manager.maintain();
+
+        assertThat(dropped).isEqualTo(1200L);
+        InOrder order = inOrder(jdbcTemplate, unreadCounter);
+        order.verify(jdbcTemplate).queryForList(startsWith("SELECT DISTINCT user_id"), eq(Long.class));
+        order.verify(jdbcTemplate).execute("ALTER TABLE notifications DROP PARTITION " + expiredName);
+        order.verify(unreadCounter).recount(List.of(3L, 7L));
+        // Counts read before the drop are never subtracted
+        verify(unreadCounter, never()).adjust(anyLong(), anyLong());
+        verify(jdbcTemplate, never()).execute("ALTER TABLE notifications DROP PARTITION " + partitionName(YearMonth.now()));
+    }
+
+    @Test
+    void splitsTheFuturePartitionForTheMonthsAheadThatAreMissing() {
+        YearMonth now = YearMonth.now();
+        partitions(List.of(
+                new Object[]{partitionName(now), bound(now), 0L},
+                new Object[]{partitionName(now.plusMonths(1)), bound(now.plusMonths(1)), 0L},
+                new Object[]{NotificationPartitionManager.FUTURE_PARTITION, "MAXVALUE", 0L}));
+
+        manager.maintain();
+
+        for (int ahead = 2; ahead <= properties.getPartitioning().getMonthsAhead(); ahead++) {
+            YearMonth month = now.plusMonths(ahead);
+            String statement = "ALTER TABLE notifications REORGANIZE PARTITION p_future INTO (" +
+                    "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                    "PARTITION p_future VALUES LESS THAN (MAXVALUE))";
+            verify(jdbcTemplate).execute(statement);
+        }
+        // The two months that already have a partition are left as they are
+        verify(jdbcTemplate, times(properties.getPartitioning().getMonthsAhead() - 1))
+                .execute(startsWith("ALTER TABLE notifications REORGANIZE PARTITION"));
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE notifications DROP PARTITION"));
+    }
+
+    @Test
+    void leavesAnUnpartitionedTableAlone() {
+        partitions(List.of());
+
+        assertThat(manager.maintain()).isZero();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(unreadCounter, never()).recount(any());
+    }
+
+    @Test
+    void parsesPartitionBounds() {
+        assertThat(NotificationPartitionManager.parseBound("'2026-11-01 00:00:00'")).isEqualTo(LocalDate.of(2026, 11, 1));
+        assertThat(NotificationPartitionManager.parseBound("'2026-11-01'")).isEqualTo(LocalDate.of(2026, 11, 1));
+        assertThat(NotificationPartitionManager.parseBound("MAXVALUE")).isNull();
+        assertThat(NotificationPartitionManager.parseBound(null)).isNull();
+    }
+
+    /** Rows of information_schema.partitions: name, description, table_rows. */
+    @SuppressWarnings("unchecked")
+    private void partitions(List<Object[]> rows) {
+        when(jdbcTemplate.query(startsWith("SELECT partition_name"), any(RowMapper.class))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> partitions = new ArrayList<>();
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn((String) row[0]);
+                when(rs.getString(2)).thenReturn((String) row[1]);
+                when(rs.getLong(3)).thenReturn((Long) row[2]);
+                partitions.add(mapper.mapRow(rs, partitions.size()));
+            }
+            return partitions;
+        });
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static String bound(YearMonth month) {
+        return "'" + month.plusMonths(1).atDay(1) + " 00:00:00'";
+    }
+}
@@ -0,0 +1,131 @@
+package com.muscledia.user_service.notification.service;
+
+import com.muscledia.user_service.notification.entity.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the retention job against an in-memory H2 database in MySQL mode, with chunks of two
+ * rows so a purge takes several transactions. The unread counter records its adjustments.
+ */
+class NotificationRetentionJobTests {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final NotificationRetentionProperties properties = new NotificationRetentionProperties();
+    private final UnreadNotificationCounter unreadCounter = mock(UnreadNotificationCounter.class);
+    private final Map<Long, Long> adjusted = new HashMap<>();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE notifications (notification_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "user_id BIGINT NOT NULL, type VARCHAR(20) NOT NULL, is_read BOOLEAN DEFAULT FALSE, created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE notification_groups (user_id BIGINT NOT NULL, type VARCHAR(20) NOT NULL, " +
+                "group_key VARCHAR(100) NOT NULL, notification_id BIGINT, started_at TIMESTAMP NOT NULL, " +
+                "PRIMARY KEY (user_id, type, group_key))");
+
+        properties.setChunkSize(2);
+        properties.setDefaultRetention(Duration.ofDays(30));
+        properties.getByType().put(NotificationType.FRIEND, Duration.ofDays(7));
+        doAnswer(invocation -> adjusted.merge(invocation.getArgument(0), invocation.getArgument(1), Long::sum))
+                .when(unreadCounter).adjust(anyLong(), anyLong());
+    }
+
+    @Test
+    void deletesOnlyExpiredRowsOfTheTypeAndTakesTheirUnreadOffTheCounters() {
+        LocalDateTime cutoff = now.minusDays(30);
+        notification(1, NotificationType.BADGE, false, cutoff.minusDays(3));
+        notification(1, NotificationType.BADGE, true, cutoff.minusDays(2));
+        notification(1, NotificationType.BADGE, false, cutoff.minusDays(1));
+        notification(2, NotificationType.BADGE, false, cutoff.minusDays(1));
+        notification(2, NotificationType.BADGE, true, cutoff.minusDays(1));
+        notification(1, NotificationType.BADGE, false, cutoff.plusDays(1));
+        notification(1, NotificationType.QUEST, false, cutoff.minusDays(1));
+
+        long purged = job(null).purgeType(NotificationType.BADGE, cutoff);
+
+        assertThat(purged).isEqualTo(5);
+        assertThat(remaining()).containsExactlyInAnyOrderEntriesOf(Map.of("BADGE", 1L, "QUEST", 1L));
+        assertThat(adjusted).containsExactlyInAnyOrderEntriesOf(Map.of(1L, -2L, 2L, -1L));
+    }
+
+    @Test
+    void appliesEachTypesRetentionAndDeletesClosedCoalescingGroups() {
+        notification(1, NotificationType.FRIEND, false, now.minusDays(8));
+        notification(1, NotificationType.FRIEND, false, now.minusDays(6));
+        notification(1, NotificationType.BADGE, false, now.minusDays(8));
+        group(1, "open", now.minusMinutes(5));
+        group(1, "closed", now.minusMinutes(15));
+
+        job(null).purgeExpired();
+
+        assertThat(remaining()).containsExactlyInAnyOrderEntriesOf(Map.of("FRIEND", 1L, "BADGE", 1L));
+        assertThat(adjusted).containsExactlyEntriesOf(Map.of(1L, -1L));
+        assertThat(jdbcTemplate.queryForList("SELECT group_key FROM notification_groups", String.class))
+                .containsExactly("open");
+    }
+
+    @Test
+    void dropsPartitionsBeforeDeletingRowByRow() {
+        NotificationPartitionManager partitionManager = mock(NotificationPartitionManager.class);
+        when(partitionManager.maintain()).thenAnswer(invocation -> {
+            // Nothing may have been deleted row by row yet
+            assertThat(remaining()).containsEntry("FRIEND", 1L);
+            return 0L;
+        });
+        notification(1, NotificationType.FRIEND, false, now.minusDays(8));
+
+        job(partitionManager).purgeExpired();
+
+        verify(partitionManager).maintain();
+        assertThat(remaining()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private NotificationRetentionJob job(NotificationPartitionManager partitionManager) {
+        ObjectProvider<NotificationPartitionManager> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(partitionManager);
+        return new NotificationRetentionJob(jdbcTemplate, new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                unreadCounter, provider, properties, new SimpleMeterRegistry(), Duration.ofMinutes(10));
+    }
+
+    private void notification(long userId, NotificationType type, boolean read, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO notifications (user_id, type, is_read, created_at) VALUES (?, ?, ?, ?)",
+                userId, type.name(), read, Timestamp.valueOf(createdAt));
+    }
+
+    private void group(long userId, String groupKey, LocalDateTime startedAt) {
+        jdbcTemplate.update("INSERT INTO notification_groups (user_id, type, group_key, notification_id, started_at) " +
+                "VALUES (?, 'BADGE', ?, 1, ?)", userId, groupKey, Timestamp.valueOf(startedAt));
+    }
+
+    private Map<String, Long> remaining() {
+        Map<String, Long> byType = new HashMap<>();
+        jdbcTemplate.query("SELECT type, COUNT(*) AS n FROM notifications GROUP BY type",
+                (RowCallbackHandler) rs -> byType.put(rs.getString("type"), rs.getLong("n")));
+        return byType;
+    }
+}
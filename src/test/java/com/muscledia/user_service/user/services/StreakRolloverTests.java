@@ -0,0 +1,166 @@
+package com.muscledia.user_service.user.services;
+
+import com.muscledia.user_service.config.cache.CacheInvalidator;
+import com.muscledia.user_service.user.services.WorkoutProgressWriter.Progress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the rollover of the UTC bucket against an in-memory H2 database in MySQL mode, with
+ * chunks of two users so a bucket takes several waves.
+ */
+class StreakRolloverTests {
+
+    private static final String NODE = "node-a";
+
+    private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    private JdbcTemplate jdbcTemplate;
+    private StreakRollover rollover;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE users (user_id BIGINT PRIMARY KEY, utc_offset_minutes INT NOT NULL DEFAULT 0, " +
+                "current_streak INT DEFAULT 0, lapsed_streak INT NOT NULL DEFAULT 0, last_workout_date DATE)");
+        jdbcTemplate.execute("CREATE TABLE streak_rollover_buckets (utc_offset_minutes INT PRIMARY KEY, " +
+                "rollover_date DATE NOT NULL, last_user_id BIGINT NOT NULL, users_reset BIGINT NOT NULL, " +
+                "started_at TIMESTAMP, completed_at TIMESTAMP, lease_owner VARCHAR(36), lease_until TIMESTAMP)");
+
+        CacheInvalidator cacheInvalidator = mock(CacheInvalidator.class);
+        when(cacheInvalidator.getNodeId()).thenReturn(NODE);
+        rollover = new StreakRollover(jdbcTemplate, cacheInvalidator, new SimpleMeterRegistry(),
+                2, 2, Duration.ofMinutes(1), Duration.ofMinutes(2));
+    }
+
+    @Test
+    void bucketIsDoneOnceTodaysRolloverHasCompleted() {
+        LocalDate day = LocalDate.of(2025, 6, 2);
+
+        assertThat(new StreakRollover.BucketState(day.minusDays(1), true).doneFor(day)).isFalse();
+        assertThat(new StreakRollover.BucketState(day, false).doneFor(day)).isFalse();
+        assertThat(new StreakRollover.BucketState(day, true).doneFor(day)).isTrue();
+        // A node whose clock is behind sees a bucket already rolled over for its tomorrow
+        assertThat(new StreakRollover.BucketState(day.plusDays(1), false).doneFor(day)).isTrue();
+    }
+
+    @Test
+    void resetsOnlyStreaksWhoseLastWorkoutIsBeforeYesterday() {
+        user(1, 3, today.minusDays(1));
+        user(2, 4, today.minusDays(2));
+        user(3, 0, null);
+        user(4, 2, today);
+        user(5, 7, today.minusDays(10));
+
+        rollover.rollOverDue();
+
+        assertThat(streaks()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 3, 2L, 0, 3L, 0, 4L, 2, 5L, 0));
+        assertThat(lapsedStreak(2)).isEqualTo(4);
+        assertThat(lapsedStreak(5)).isEqualTo(7);
+        Map<String, Object> bucket = bucket();
+        assertThat(bucket.get("rollover_date")).isEqualTo(Date.valueOf(today));
+        assertThat(bucket.get("completed_at")).isNotNull();
+        assertThat(bucket.get("users_reset")).isEqualTo(2L);
+        assertThat(bucket.get("lease_owner")).isNull();
+    }
+
+    @Test
+    void resumesAfterTheCheckpointOnceAnotherNodesLeaseHasExpired() {
+        for (long userId = 1; userId <= 5; userId++) {
+            user(userId, 3, today.minusDays(2));
+        }
+        // Users 1 and 2 count as done by a node that then stopped checkpointing
+        jdbcTemplate.update("INSERT INTO streak_rollover_buckets (utc_offset_minutes, rollover_date, last_user_id, " +
+                "users_reset, started_at, lease_owner, lease_until) VALUES (0, ?, 2, 2, NOW(), 'node-b', " +
+                "TIMESTAMPADD(SECOND, -1, NOW()))", Date.valueOf(today));
+
+        rollover.rollOverDue();
+
+        assertThat(streaks()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 3, 2L, 3, 3L, 0, 4L, 0, 5L, 0));
+        Map<String, Object> bucket = bucket();
+        assertThat(bucket.get("completed_at")).isNotNull();
+        assertThat(bucket.get("last_user_id")).isEqualTo(5L);
+        assertThat(bucket.get("users_reset")).isEqualTo(5L);
+        assertThat(bucket.get("lease_owner")).isNull();
+    }
+
+    @Test
+    void leavesABucketLeasedByAnotherNodeAlone() {
+        user(1, 3, today.minusDays(2));
+        jdbcTemplate.update("INSERT INTO streak_rollover_buckets (utc_offset_minutes, rollover_date, last_user_id, " +
+                "users_reset, started_at, lease_owner, lease_until) VALUES (0, ?, 0, 0, NOW(), 'node-b', " +
+                "TIMESTAMPADD(SECOND, 60, NOW()))", Date.valueOf(today));
+
+        rollover.rollOverDue();
+
+        assertThat(streaks()).containsEntry(1L, 3);
+        assertThat(bucket().get("lease_owner")).isEqualTo("node-b");
+        assertThat(bucket().get("completed_at")).isNull();
+    }
+
+    @Test
+    void lateWorkoutOfTheMissedDayContinuesTheResetStreak() {
+        user(1, 5, today.minusDays(2));
+
+        rollover.rollOverDue();
+        assertThat(streaks()).containsEntry(1L, 0);
+
+        // Yesterday's workout is consumed only now, from a retry topic
+        Progress progress = WorkoutProgressWriter.advance(progress(1), today.minusDays(1));
+        assertThat(progress.streak()).isEqualTo(6);
+        assertThat(WorkoutProgressWriter.advance(progress, today).streak()).isEqualTo(7);
+    }
+
+    @Test
+    void workoutAfterAGapRestartsTheStreakDespiteTheLapsedOne() {
+        user(1, 5, today.minusDays(3));
+
+        rollover.rollOverDue();
+
+        assertThat(WorkoutProgressWriter.advance(progress(1), today).streak()).isEqualTo(1);
+    }
+
+    private void user(long userId, int streak, LocalDate lastWorkout) {
+        jdbcTemplate.update("INSERT INTO users (user_id, current_streak, last_workout_date) VALUES (?, ?, ?)",
+                userId, streak, lastWorkout != null ? Date.valueOf(lastWorkout) : null);
+    }
+
+    private Map<Long, Integer> streaks() {
+        Map<Long, Integer> streaks = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, current_streak FROM users",
+                (RowCallbackHandler) rs -> streaks.put(rs.getLong("user_id"), rs.getInt("current_streak")));
+        return streaks;
+    }
+
+    private int lapsedStreak(long userId) {
+        return jdbcTemplate.queryForObject("SELECT lapsed_streak FROM users WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private Progress progress(long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT current_streak, lapsed_streak, last_workout_date FROM users WHERE user_id = ?",
+                (rs, rowNum) -> new Progress(rs.getInt("current_streak"), rs.getInt("lapsed_streak"),
+                        rs.getDate("last_workout_date").toLocalDate(), 0),
+                userId);
+    }
+
+    private Map<String, Object> bucket() {
+        return jdbcTemplate.queryForMap("SELECT * FROM streak_rollover_buckets WHERE utc_offset_minutes = 0");
+    }
+}